@@ -2,7 +2,7 @@ plugins {
     application
     id("org.openjfx.javafxplugin") version "0.1.0"
     id("org.beryx.jlink") version "3.0.1"
-    
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories { 
@@ -48,6 +48,15 @@ java {
     }
 }
 
+// Benchmarks live in src/jmh/java and run with ./gradlew jmh, e.g.
+// ./gradlew jmh -Pbench=EditBenchmark to run only the benchmarks matching a pattern
+jmh {
+    jmhVersion.set("1.37")
+    includes.set(listOf(project.findProperty("bench")?.toString() ?: ".*"))
+    jvmArgs.set(listOf("-Xmx2g", "-Djava.awt.headless=true", "-Dprism.order=sw"))
+    resultFormat.set("JSON")
+}
+
 sourceSets {
     main {
         java.srcDir("src/main/java")
@@ -72,6 +81,20 @@ tasks {
             expand(project.properties)
         }
     }
+
+    // Renders a saved world to PNG without a display, e.g.
+    // ./gradlew renderWorld -Pworld=island.world -Ppng=island.png
+    register<JavaExec>("renderWorld") {
+        group = "application"
+        description = "Renders a saved world to PNG without opening a window"
+        classpath = sourceSets["main"].runtimeClasspath
+        mainClass.set("com.worldbuilder.render.HeadlessRenderer")
+        jvmArgs("-Xmx2g", "-Djava.awt.headless=true", "-Dprism.order=sw")
+        args(
+            project.findProperty("world") ?: "world.world",
+            project.findProperty("png") ?: "world.png"
+        )
+    }
 }
 
 
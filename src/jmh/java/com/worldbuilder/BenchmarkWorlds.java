@@ -0,0 +1,118 @@
+package com.worldbuilder;
+
+import java.util.SplittableRandom;
+
+import com.worldbuilder.Canvas.LayerStack;
+import com.worldbuilder.Canvas.TileLayer;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * BenchmarkWorlds - Generated worlds for the benchmarks.
+ * Islands of sand and grass in water, with plateaus reached by stairs, walls,
+ * shadows and a bridge, shaped by value noise so the layers have ragged edges
+ * like hand-painted worlds. The same seed always gives the same world.
+ */
+public final class BenchmarkWorlds {
+    public static final long SEED = 42;
+
+    private BenchmarkWorlds() {
+        // This class should not be instantiated
+    }
+
+    /**
+     * Generates a world into the layers of a stack, resolving every variant.
+     */
+    public static void generate(LayerStack layers, long seed) {
+        TileLayer any = layers.getWater();
+        int width = any.getWidth();
+        int height = any.getHeight();
+        float[] ground = noise(width, height, 24, seed);
+        float[] detail = noise(width, height, 6, seed + 1);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                float value = ground[y * width + x];
+                layers.getWater().loadTile(x, y, 0);
+                if (value > 0.45f) {
+                    layers.getSand().loadTile(x, y, 0);
+                } else if (value > 0.42f) {
+                    layers.getFoam().loadTile(x, y, 0);
+                }
+                if (value > 0.5f) {
+                    layers.getGrass().loadTile(x, y, 0);
+                }
+                if (value > 0.5f && detail[y * width + x] > 0.8f) {
+                    layers.getRocks().loadTile(x, y, random.nextInt(4));
+                }
+                if (value > 0.65f) {
+                    layers.getPlateau().loadTile(x, y, 0);
+                    layers.getShadow().loadTile(x, y, 0);
+                } else if (value > 0.62f) {
+                    // A wall below the plateau with stairs breaking through it here and there
+                    if (detail[y * width + x] > 0.6f) {
+                        layers.getStairs().loadTile(x, y, 0);
+                    } else {
+                        layers.getWall().loadTile(x, y, 0);
+                    }
+                }
+            }
+        }
+
+        // A bridge across the middle of the world
+        int row = height / 2;
+        for (int x = width / 4; x < width * 3 / 4; x++) {
+            layers.getBridge().loadTile(x, row, 0);
+            layers.getBridgeShadow().loadTile(x, row + 1, 0);
+        }
+
+        for (TileLayer layer : layers.getLayers()) {
+            layer.resolveVariants();
+        }
+    }
+
+    /**
+     * Creates a model of the given size holding a generated world.
+     */
+    public static WorldModel create(int width, int height, long seed) {
+        WorldModel model = new WorldModel(width, height);
+        generate(new LayerStack(model), seed);
+        return model;
+    }
+
+    /**
+     * Smooth value noise in [0, 1), interpolated between random values on a grid.
+     * @param cell Distance between grid points in tiles
+     */
+    public static float[] noise(int width, int height, int cell, long seed) {
+        int columns = width / cell + 2;
+        int rows = height / cell + 2;
+        SplittableRandom random = new SplittableRandom(seed);
+        float[] grid = new float[columns * rows];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = (float) random.nextDouble();
+        }
+
+        float[] values = new float[width * height];
+        for (int y = 0; y < height; y++) {
+            int gy = y / cell;
+            float fy = smooth((y % cell) / (float) cell);
+            for (int x = 0; x < width; x++) {
+                int gx = x / cell;
+                float fx = smooth((x % cell) / (float) cell);
+                float top = lerp(grid[gy * columns + gx], grid[gy * columns + gx + 1], fx);
+                float bottom = lerp(grid[(gy + 1) * columns + gx], grid[(gy + 1) * columns + gx + 1], fx);
+                values[y * width + x] = lerp(top, bottom, fy);
+            }
+        }
+        return values;
+    }
+
+    private static float smooth(float t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * t;
+    }
+}
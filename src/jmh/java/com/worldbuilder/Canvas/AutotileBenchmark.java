@@ -0,0 +1,95 @@
+package com.worldbuilder.Canvas;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.worldbuilder.BenchmarkWorlds;
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * Autotile variant resolution of the layers that autotile, per tile and for a whole layer.
+ * legacyDetermineVariant runs the if/else chains the layers used before the autotile
+ * tables over the same tiles, as the baseline for determineVariant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutotileBenchmark {
+    @Param({"GRASS", "SAND", "WALL", "PLATEAU", "STAIRS", "BRIDGE"})
+    private TileType type;
+
+    @Param({"256", "1024"})
+    private int size;
+
+    private TileLayer layer;
+    private LegacyAutotile legacy;
+    private int[] tiles;
+
+    @Setup
+    public void setup() {
+        WorldModel model = new WorldModel(size, size);
+        LayerStack layers = new LayerStack(model);
+        BenchmarkWorlds.generate(layers, BenchmarkWorlds.SEED);
+        layer = layers.getLayers().stream().filter(l -> l.getType() == type).findFirst().orElseThrow();
+
+        // Every occupied tile, in row order like a full resolve visits them
+        short[] cells = model.getLayer(type);
+        int count = 0;
+        for (short cell : cells) {
+            if (cell != WorldModel.EMPTY) {
+                count++;
+            }
+        }
+        legacy = new LegacyAutotile(type, cells, size, size);
+        tiles = new int[count];
+        for (int i = 0, n = 0; i < cells.length; i++) {
+            if (cells[i] != WorldModel.EMPTY) {
+                tiles[n++] = i;
+            }
+        }
+    }
+
+    /**
+     * Resolves the variant of every occupied tile without writing it back.
+     */
+    @Benchmark
+    public void determineVariant(Blackhole blackhole) {
+        for (int tile : tiles) {
+            blackhole.consume(layer.determineVariant(tile % size, tile / size));
+        }
+    }
+
+    /**
+     * Resolves the variant of every occupied tile the way the layers did before the tables.
+     */
+    @Benchmark
+    public void legacyDetermineVariant(Blackhole blackhole) {
+        for (int tile : tiles) {
+            blackhole.consume(legacy.determineVariant(tile % size, tile / size));
+        }
+    }
+
+    /**
+     * Resolves and writes back the variants of the whole layer, as after an import.
+     */
+    @Benchmark
+    public void resolveVariants() {
+        layer.resolveVariants();
+    }
+}
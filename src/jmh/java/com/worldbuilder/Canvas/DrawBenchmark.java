@@ -0,0 +1,150 @@
+package com.worldbuilder.Canvas;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldbuilder.SpriteLoader;
+import com.worldbuilder.SpriteSurface;
+import com.worldbuilder.model.WorldModel;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+/**
+ * Drawing the grass tiles of a chunk-sized area, through the pre-sliced atlas regions
+ * the layers draw with and through the source rectangles of the ground sheet they
+ * computed before the atlas (see legacySheet). "canvas" records the draws into a
+ * JavaFX canvas as the editor does on the FX thread, "image" rasterizes them with
+ * Java2D as the headless renderer does. Times are per drawn tile.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawBenchmark {
+    private static final int TILES = 16;
+    // Every tile but one in each 4x4 block has grass, so the variants differ around the holes
+    private static final int HOLE_SPACING = 4;
+    private static final int DRAWS = TILES * TILES - (TILES / HOLE_SPACING) * (TILES / HOLE_SPACING);
+    private static final int PIXELS = TILES * TileLayer.TILE_SIZE;
+    private static final String GROUND_SHEET = "/assets/Terrain/Ground/Tilemap_Flat.png";
+
+    @Param({"canvas", "image"})
+    private String target;
+
+    private GrassCanvas grass;
+    private GraphicsContext gc;
+    private Graphics2D graphics;
+    private SpriteSurface surface;
+    private Image sheet;
+    private BufferedImage sheetImage;
+
+    @Setup
+    public void setup() {
+        grass = new GrassCanvas(new WorldModel(TILES, TILES));
+        for (int y = 0; y < TILES; y++) {
+            for (int x = 0; x < TILES; x++) {
+                if (x % HOLE_SPACING != 0 || y % HOLE_SPACING != 0) {
+                    grass.loadTile(x, y, 0);
+                }
+            }
+        }
+        grass.resolveVariants();
+
+        // The sheet is decoded on its own, as SpriteLoader did for every sheet before the atlas
+        sheet = new Image(DrawBenchmark.class.getResourceAsStream(GROUND_SHEET));
+        if (target.equals("canvas")) {
+            gc = new Canvas(PIXELS, PIXELS).getGraphicsContext2D();
+            surface = SpriteSurface.of(gc);
+        } else {
+            BufferedImage image = new BufferedImage(PIXELS, PIXELS, BufferedImage.TYPE_INT_ARGB);
+            graphics = image.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            sheetImage = SwingFXUtils.fromFXImage(sheet, null);
+            BufferedImage atlas = SwingFXUtils.fromFXImage(SpriteLoader.getAtlas(), null);
+            // The surface of the headless renderer
+            surface = (region, x, y, w, h) -> {
+                int dx = (int) Math.round(x);
+                int dy = (int) Math.round(y);
+                graphics.drawImage(atlas,
+                        dx, dy, dx + (int) Math.round(w), dy + (int) Math.round(h),
+                        region.x(), region.y(), region.x() + region.width(), region.y() + region.height(),
+                        null);
+            };
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (graphics != null) {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Draws every tile through the layer, which picks the atlas region of its variant.
+     */
+    @Benchmark
+    @OperationsPerInvocation(DRAWS)
+    public void atlasRegions() {
+        clear();
+        grass.render(surface, 0, 0, TILES - 1, TILES - 1);
+    }
+
+    /**
+     * Draws every tile from the ground sheet, computing the source rectangle of its
+     * variant on each draw as GroundCanvas.drawTile did before the atlas.
+     */
+    @Benchmark
+    @OperationsPerInvocation(DRAWS)
+    public void legacySheet() {
+        clear();
+        int size = TileLayer.TILE_SIZE;
+        for (int y = 0; y < TILES; y++) {
+            for (int x = 0; x < TILES; x++) {
+                if (!grass.hasTile(x, y)) {
+                    continue;
+                }
+                GroundCanvas.TileVariant variant = grass.getTerrainVariants()[WorldModel.variantOf(grass.getCell(x, y))];
+                int sx = variant.x() * size;
+                int sy = variant.y() * size;
+                if (gc != null) {
+                    gc.drawImage(sheet, sx, sy, size, size, x * size, y * size, size, size);
+                } else {
+                    graphics.drawImage(sheetImage, x * size, y * size, (x + 1) * size, (y + 1) * size,
+                            sx, sy, sx + size, sy + size, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears the canvas as a chunk repaint does, which also drops its recorded commands.
+     * Images are drawn over without clearing, as clearing would cost more than the draws.
+     */
+    private void clear() {
+        if (gc != null) {
+            gc.clearRect(0, 0, PIXELS, PIXELS);
+        }
+    }
+}
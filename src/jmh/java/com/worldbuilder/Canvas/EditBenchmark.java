@@ -0,0 +1,141 @@
+package com.worldbuilder.Canvas;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldbuilder.BenchmarkWorlds;
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.EditHistory;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * Edits as the editor applies them: brush strokes, shape and shadow deletion, and
+ * bucket fills, optionally recorded for undo. Every invocation starts from the same
+ * generated world, the layers are restored between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EditBenchmark {
+    private static final long HISTORY_BYTES = 64L * 1024 * 1024;
+    private static final int BRUSH_SIZE = 3;
+
+    @Param({"256", "1024", "2048"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean recordHistory;
+
+    private WorldModel model;
+    private WorldModel original;
+    private LayerStack layers;
+    private EditHistory history;
+    private int[] stroke;
+    private int[] shadows;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        model = new WorldModel(size, size);
+        layers = new LayerStack(model);
+        BenchmarkWorlds.generate(layers, BenchmarkWorlds.SEED);
+        original = model.copy();
+
+        // A diagonal stroke across the world with a round brush, each tile once as the stroke painter collects it
+        int[] tip = BrushTool.ellipse(0, 0, BRUSH_SIZE - 1, BRUSH_SIZE - 1, size, size);
+        BitSet painted = new BitSet(size * size);
+        for (int i = 0; i < size - BRUSH_SIZE; i++) {
+            for (int offset : tip) {
+                painted.set(offset + i * (size + 1));
+            }
+        }
+        stroke = painted.stream().toArray();
+
+        // Every shadow in the middle of the world, as a selection delete covers them
+        shadows = BrushTool.rectangle(size / 4, size / 4, size * 3 / 4, size * 3 / 4, size, size);
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() {
+        for (TileType type : TileType.values()) {
+            if (original.hasLayer(type)) {
+                System.arraycopy(original.getLayer(type), 0, model.getLayer(type), 0, size * size);
+            } else if (model.hasLayer(type)) {
+                Arrays.fill(model.getLayer(type), WorldModel.EMPTY);
+            }
+        }
+        if (recordHistory) {
+            history = new EditHistory(model, HISTORY_BYTES);
+            history.begin("Benchmark");
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void endEdit() {
+        if (recordHistory) {
+            history.end();
+        }
+    }
+
+    /**
+     * Paints a brush stroke of grass over the edges of the islands.
+     */
+    @Benchmark
+    public void paintStroke() {
+        layers.getGrass().paintTiles(stroke, stroke.length, 0);
+    }
+
+    /**
+     * Erases the same stroke from the grass.
+     */
+    @Benchmark
+    public void eraseStroke() {
+        layers.getGrass().eraseTiles(stroke, stroke.length);
+    }
+
+    /**
+     * Deletes the shadows in the middle quarter of the world.
+     */
+    @Benchmark
+    public void deleteShadows() {
+        layers.getShadow().eraseTiles(shadows, shadows.length);
+    }
+
+    /**
+     * Fills the water between the islands with grass, a region with many holes.
+     */
+    @Benchmark
+    public int fillAroundIslands() {
+        GrassCanvas grass = layers.getGrass();
+        int x = 0;
+        while (x < size - 1 && grass.hasTile(x, 0)) {
+            x++;
+        }
+        return grass.fillRegion(x, 0, 0);
+    }
+
+    /**
+     * Fills the whole empty sand fill layer, a single region without holes.
+     */
+    @Benchmark
+    public int fillEmptyLayer() {
+        return layers.getSandFill().fillRegion(0, 0, 0);
+    }
+}
@@ -0,0 +1,124 @@
+package com.worldbuilder.Canvas;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.worldbuilder.BenchmarkWorlds;
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * Loading a parsed legacy JSON world into the layers, the bulk path the import takes
+ * against the old replay of every tile through the draw APIs (see {@link LegacyAutotile#draw}).
+ * Parsing the JSON is the same for both and left out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImportBenchmark {
+    private static final List<TileType> AUTOTILED = List.of(
+        TileType.GRASS, TileType.SAND, TileType.PLATEAU, TileType.BRIDGE, TileType.WALL, TileType.STAIRS);
+
+    @Param({"64", "256"})
+    private int size;
+
+    private String[][][] tileMap;
+    private WorldModel model;
+    private LayerStack layers;
+    private Map<String, TileLayer> layerByName;
+
+    @Setup
+    public void setup() {
+        WorldModel world = BenchmarkWorlds.create(size, size, BenchmarkWorlds.SEED);
+        List<TileLayer> order = new LayerStack(world).getLayers();
+
+        // A legacy world, one tile name per layer of every tile
+        tileMap = new String[size][size][order.size()];
+        for (int i = 0; i < order.size(); i++) {
+            TileType type = order.get(i).getType();
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    if (world.has(type, x, y)) {
+                        tileMap[x][y][i] = type == TileType.ROCKS
+                                ? "ROCKS" + (WorldModel.subtypeOf(world.get(type, x, y)) + 1)
+                                : type.name();
+                    }
+                }
+            }
+        }
+
+        model = new WorldModel(size, size);
+        layers = new LayerStack(model);
+        layerByName = new HashMap<>();
+        for (TileLayer layer : layers.getLayers()) {
+            layerByName.put(layer.getType().name(), layer);
+        }
+    }
+
+    /**
+     * Writes every tile with loadTile, then resolves each layer's variants in one pass.
+     */
+    @Benchmark
+    public WorldModel bulkLoad() {
+        model.clear();
+        for (int i = 0; i < tileMap[0][0].length; i++) {
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    String tile = tileMap[x][y][i];
+                    if (tile == null) {
+                        continue;
+                    }
+                    if (tile.startsWith("ROCKS")) {
+                        layers.getRocks().loadTile(x, y, tile.charAt(5) - '1');
+                    } else {
+                        layerByName.get(tile).loadTile(x, y, 0);
+                    }
+                }
+            }
+        }
+        for (TileLayer layer : layers.getLayers()) {
+            layer.resolveVariants();
+        }
+        return model;
+    }
+
+    /**
+     * Replays every tile through the old draw APIs, the autotiled layers redrawing
+     * their neighbours after each tile.
+     */
+    @Benchmark
+    public void legacyReplay(Blackhole blackhole) {
+        Map<String, LegacyAutotile> legacy = new HashMap<>();
+        for (int i = 0; i < tileMap[0][0].length; i++) {
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    String tile = tileMap[x][y][i];
+                    if (tile == null) {
+                        continue;
+                    }
+                    TileType type = tile.startsWith("ROCKS") ? TileType.ROCKS : TileType.valueOf(tile);
+                    LegacyAutotile layer = legacy.computeIfAbsent(tile, name -> new LegacyAutotile(type, size, size));
+                    blackhole.consume(layer.draw(x, y, AUTOTILED.contains(type)));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.worldbuilder.Canvas;
+
+import com.worldbuilder.TileType;
+
+/**
+ * LegacyAutotile - The variant resolution the layers used before the autotile tables,
+ * kept as the baseline of {@link AutotileBenchmark} and {@link ImportBenchmark}.
+ * Each layer tested its four neighbours in a tile map indexed [x][y] and walked an
+ * if/else chain over the four booleans. Variant indices match the old VARIANTS arrays.
+ */
+final class LegacyAutotile {
+    private final TileType type;
+    private final Object[][] tileMap;
+
+    // The old layers kept a record per tile around the resolved variant
+    private record Tile(int variant) {}
+
+    /**
+     * Creates an empty old-style tile map.
+     */
+    LegacyAutotile(TileType type, int width, int height) {
+        this.type = type;
+        this.tileMap = new Object[width][height];
+    }
+
+    /**
+     * Copies the occupied tiles of a layer into an old-style tile map.
+     */
+    LegacyAutotile(TileType type, short[] cells, int width, int height) {
+        this(type, width, height);
+        Object tile = new Object();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (cells[y * width + x] != 0) {
+                    tileMap[x][y] = tile;
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws a tile the way the old draw APIs did: autotile it, store a new record and,
+     * when asked, redraw the four neighbours the same way. The drawImage call and the
+     * DebugInfo message each draw posted cannot run without a window, so only the
+     * message text is built.
+     * @return The message of the last draw
+     */
+    String draw(int x, int y, boolean updateNeighbors) {
+        tileMap[x][y] = new Tile(determineVariant(x, y));
+        if (updateNeighbors) {
+            if (x > 0 && tileMap[x-1][y] != null) draw(x-1, y, false);
+            if (x < tileMap.length-1 && tileMap[x+1][y] != null) draw(x+1, y, false);
+            if (y > 0 && tileMap[x][y-1] != null) draw(x, y-1, false);
+            if (y < tileMap[0].length-1 && tileMap[x][y+1] != null) draw(x, y+1, false);
+        }
+        return "Painted " + type + " at (" + x + ", " + y + ")";
+    }
+
+    int determineVariant(int x, int y) {
+        return switch (type) {
+            case GRASS, SAND -> ground(x, y);
+            case PLATEAU -> plateau(x, y);
+            case BRIDGE -> bridge(x, y);
+            case WALL -> wall(x, y);
+            case STAIRS -> stairs(x, y);
+            default -> 0;
+        };
+    }
+
+    private int ground(int x, int y) {
+        boolean hasTop = y > 0 && tileMap[x][y-1] != null;
+        boolean hasBottom = y < tileMap[0].length-1 && tileMap[x][y+1] != null;
+        boolean hasLeft = x > 0 && tileMap[x-1][y] != null;
+        boolean hasRight = x < tileMap.length-1 && tileMap[x+1][y] != null;
+
+        if (hasTop && hasBottom && hasLeft && hasRight) return 4;  // CENTER
+        if (hasLeft && hasRight && !hasTop && !hasBottom) return 10; // HOR_CENTER
+        if (hasTop && hasBottom && !hasLeft && !hasRight) return 13; // VER_CENTER
+        if (hasRight && hasBottom && !hasLeft && !hasTop) return 0;  // TOP_LEFT
+        if (hasLeft && hasBottom && !hasRight && !hasTop) return 2;  // TOP_RIGHT
+        if (hasRight && hasTop && !hasLeft && !hasBottom) return 6;  // BOTTOM_LEFT
+        if (hasLeft && hasTop && !hasRight && !hasBottom) return 8;  // BOTTOM_RIGHT
+        if (hasBottom && !hasTop && hasLeft && hasRight) return 1;   // TOP
+        if (hasTop && !hasBottom && hasLeft && hasRight) return 7;   // BOTTOM
+        if (hasRight && !hasLeft && hasTop && hasBottom) return 3;   // LEFT
+        if (hasLeft && !hasRight && hasTop && hasBottom) return 5;   // RIGHT
+        if (hasRight && !hasLeft && !hasTop && !hasBottom) return 9; // HOR_LEFT
+        if (hasLeft && !hasRight && !hasTop && !hasBottom) return 11;// HOR_RIGHT
+        if (!hasRight && !hasLeft && !hasTop && hasBottom) return 12;// VER_TOP
+        if (!hasRight && !hasLeft && !hasBottom && hasTop) return 14;// VER_BOTTOM
+        return 15; // SOLO
+    }
+
+    private int plateau(int x, int y) {
+        boolean hasTop = y > 0 && tileMap[x][y - 1] != null;
+        boolean hasBottom = y < tileMap[0].length - 1 && tileMap[x][y + 1] != null;
+        boolean hasLeft = x > 0 && tileMap[x - 1][y] != null;
+        boolean hasRight = x < tileMap.length - 1 && tileMap[x + 1][y] != null;
+
+        if (!hasTop && hasBottom && !hasLeft && hasRight)
+            return 0; // TOP LEFT
+        else if (!hasTop && hasBottom && hasLeft && hasRight)
+            return 1; // TOP CENTER
+        else if (!hasTop && hasBottom && hasLeft && !hasRight)
+            return 2; // TOP RIGHT
+
+        else if (hasTop && hasBottom && !hasLeft && hasRight)
+            return 3; // CENTER LEFT
+        else if (hasTop && hasBottom && hasLeft && hasRight)
+            return 4; // CENTER
+        else if (hasTop && hasBottom && hasLeft && !hasRight)
+            return 5; // CENTER RIGHT
+
+        else if (hasTop && !hasBottom && !hasLeft && hasRight)
+            return 6; // BOTTOM LEFT
+        else if (hasTop && !hasBottom && hasLeft && hasRight)
+            return 7; // BOTTOM CENTER
+        else if (hasTop && !hasBottom && hasLeft && !hasRight)
+            return 8; // BOTTOM RIGHT
+
+        else if (!hasTop && hasBottom && !hasLeft && !hasRight)
+            return 9; // LONG_TOP
+        else if (hasTop && hasBottom && !hasLeft && !hasRight)
+            return 10; // LONG_CENTER
+        else if (hasTop && !hasBottom && !hasLeft && !hasRight)
+            return 11; // LONG_BOTTOM
+
+        else if (!hasTop && !hasBottom && !hasLeft && hasRight)
+            return 12; // WIDE_LEFT
+        else if (!hasTop && !hasBottom && hasLeft && hasRight)
+            return 13; // WIDE_CENTER
+        else if (!hasTop && !hasBottom && hasLeft && !hasRight)
+            return 14; // WIDE_RIGHT
+        else if (!hasTop && !hasBottom && !hasLeft && !hasRight)
+            return 15; // SOLO
+        else
+            return -1;
+    }
+
+    private int bridge(int x, int y) {
+        boolean hasTop = y > 0 && tileMap[x][y - 1] != null;
+        boolean hasBottom = y < tileMap[0].length - 1 && tileMap[x][y + 1] != null;
+        boolean hasLeft = x > 0 && tileMap[x - 1][y] != null;
+        boolean hasRight = x < tileMap.length - 1 && tileMap[x + 1][y] != null;
+
+        if (!hasTop && !hasBottom && !hasLeft && hasRight)
+            return 0; // HOR_LEFT
+        if (!hasTop && !hasBottom && hasLeft && hasRight)
+            return 1; // HOR_CENTER
+        if (!hasTop && !hasBottom && hasLeft && !hasRight)
+            return 2; // HOR_RIGHT
+
+        if (!hasTop && hasBottom && !hasLeft && !hasRight)
+            return 3; // VER_TOP
+        if (hasTop && hasBottom && !hasLeft && !hasRight)
+            return 4; // VER_CENTER
+        if (hasTop && !hasBottom && !hasLeft && !hasRight)
+            return 5; // VER_BOTTOM
+        return (int) (Math.random() * 3) + 6; // Returns BROKEN1, BROKEN2
+        // or BROKEN3
+    }
+
+    private int wall(int x, int y) {
+        boolean hasLeft = x > 0 && tileMap[x - 1][y] != null;
+        boolean hasRight = x < tileMap.length - 1 && tileMap[x + 1][y] != null;
+
+        if (hasLeft && hasRight)
+            return 1; // CENTER
+        else if (!hasLeft && hasRight)
+            return 0; // LEFT
+        else if (hasLeft && !hasRight)
+            return 2; // RIGHT
+
+        return 3; // SOLO
+    }
+
+    private int stairs(int x, int y) {
+        boolean hasLeft = x > 0 && tileMap[x - 1][y] != null;
+        boolean hasRight = x < tileMap.length - 1 && tileMap[x + 1][y] != null;
+
+        if (hasLeft && hasRight)
+            return 1; // CENTER
+        else if (hasLeft)
+            return 2; // RIGHT
+        else if (hasRight)
+            return 0; // LEFT
+
+        return 3; // SOLO
+    }
+}
@@ -0,0 +1,104 @@
+package com.worldbuilder.Canvas;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldbuilder.BenchmarkWorlds;
+import com.worldbuilder.model.WorldModel;
+
+import javafx.scene.layout.Pane;
+
+/**
+ * Frames of the chunked renderer over generated worlds of growing size: scrolling
+ * the viewport by one tile, and repainting everything in view. The time of a call is
+ * the frame time. The texture memory held by the chunks is printed at the end of each
+ * trial, next to what the full-world layer canvases took before chunking. Neither the
+ * frame time nor the texture memory should grow with the world.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+    private static final double VIEW_WIDTH = 1280;
+    private static final double VIEW_HEIGHT = 800;
+    // Full-world canvases the editor stacked before chunking, four bytes per pixel each
+    private static final int LEGACY_CANVASES = 15;
+
+    @Param({"64", "256", "1024"})
+    private int size;
+
+    private LayerStack layers;
+    private ChunkRenderer renderer;
+    private double scrollRange;
+    private double position;
+    private long textureBytes;
+    private int canvases;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        layers = new LayerStack(new WorldModel(size, size));
+        BenchmarkWorlds.generate(layers, BenchmarkWorlds.SEED);
+        scrollRange = (double) size * TileLayer.TILE_SIZE - VIEW_WIDTH;
+    }
+
+    /**
+     * Binds the layers to a new renderer showing the top left corner. Without a window
+     * the canvases keep every drawing command, so they are replaced each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void bindChunks() {
+        renderer = new ChunkRenderer(new Pane(), layers.getLayers(), size, size);
+        position = 0;
+        renderer.updateViewport(0, 0, VIEW_WIDTH, VIEW_HEIGHT);
+    }
+
+    @TearDown(Level.Iteration)
+    public void recordTextures() {
+        textureBytes = Math.max(textureBytes, renderer.getTextureBytes());
+        canvases = Math.max(canvases, renderer.getCanvasCount());
+    }
+
+    @TearDown(Level.Trial)
+    public void printTextures() {
+        long pixels = (long) size * TileLayer.TILE_SIZE;
+        System.out.printf("%dx%d tiles: %d chunk canvases, %.1f MB textures, full-world canvases %.1f MB%n",
+                size, size, canvases, textureBytes / (1024.0 * 1024),
+                LEGACY_CANVASES * pixels * pixels * 4 / (1024.0 * 1024));
+    }
+
+    /**
+     * Scrolls the viewport one tile to the right, wrapping to the left edge a few rows down.
+     */
+    @Benchmark
+    public void scroll() {
+        position += TileLayer.TILE_SIZE;
+        double x = position % scrollRange;
+        double y = Math.floor(position / scrollRange) * 4 * TileLayer.TILE_SIZE
+                % ((double) size * TileLayer.TILE_SIZE - VIEW_HEIGHT);
+        renderer.updateViewport(x, y, VIEW_WIDTH, VIEW_HEIGHT);
+    }
+
+    /**
+     * Repaints every layer of every chunk in view, as after loading a world.
+     */
+    @Benchmark
+    public void redraw() {
+        renderer.redraw();
+    }
+}
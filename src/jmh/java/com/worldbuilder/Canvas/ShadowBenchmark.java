@@ -0,0 +1,88 @@
+package com.worldbuilder.Canvas;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
+
+import javafx.scene.layout.Pane;
+
+/**
+ * Deleting one shadow in the middle of a square region of shadows, with the
+ * visible chunks repainted as in the editor. The cost should not depend on the
+ * size of the region.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShadowBenchmark {
+    private static final int SIZE = 256;
+    private static final double VIEW_WIDTH = 1280;
+    private static final double VIEW_HEIGHT = 800;
+
+    /**
+     * Side of the shadowed square in tiles: 3 for about 10 shadows, 100 for 10,000.
+     */
+    @Param({"3", "100"})
+    private int region;
+
+    private LayerStack layers;
+    private ShadowCanvas shadow;
+    private short[] cells;
+    private int[] center;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        WorldModel model = new WorldModel(SIZE, SIZE);
+        layers = new LayerStack(model);
+        shadow = layers.getShadow();
+        int start = (SIZE - region) / 2;
+        for (int y = start; y < start + region; y++) {
+            for (int x = start; x < start + region; x++) {
+                shadow.loadTile(x, y, 0);
+            }
+        }
+        cells = model.getLayer(TileType.SHADOW);
+        center = new int[] {model.index(SIZE / 2, SIZE / 2)};
+    }
+
+    /**
+     * Binds the chunks around the deleted shadow to a new renderer. Without a window
+     * the canvases keep every drawing command, so they are replaced each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void bindChunks() {
+        ChunkRenderer renderer = new ChunkRenderer(new Pane(), layers.getLayers(), SIZE, SIZE);
+        double middle = SIZE / 2 * TileLayer.TILE_SIZE;
+        renderer.updateViewport(middle - VIEW_WIDTH / 2, middle - VIEW_HEIGHT / 2, VIEW_WIDTH, VIEW_HEIGHT);
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() {
+        cells[center[0]] = WorldModel.pack(0, 0);
+    }
+
+    /**
+     * Deletes the shadow in the middle of the region, as the eraser does.
+     */
+    @Benchmark
+    public void deleteShadow() {
+        shadow.eraseTiles(center, 1);
+    }
+}
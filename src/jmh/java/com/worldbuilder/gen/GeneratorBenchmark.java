@@ -0,0 +1,48 @@
+package com.worldbuilder.gen;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldbuilder.BenchmarkWorlds;
+import com.worldbuilder.Canvas.LayerStack;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * Generating a whole world, fields, terrain and autotiling, on the common fork-join pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+    @Param({"512", "2048"})
+    private int size;
+
+    private LayerStack layers;
+    private WorldGenerator generator;
+
+    @Setup
+    public void setup() {
+        layers = new LayerStack(new WorldModel(size, size));
+        generator = new WorldGenerator(BenchmarkWorlds.SEED);
+    }
+
+    @Benchmark
+    public WorldModel generate() {
+        generator.generate(layers);
+        return layers.getModel();
+    }
+}
@@ -0,0 +1,124 @@
+package com.worldbuilder.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.worldbuilder.BenchmarkWorlds;
+import com.worldbuilder.Canvas.LayerStack;
+import com.worldbuilder.Canvas.TileLayer;
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * The files written by export and read by import: the world file, the binary
+ * collision map, and the legacy JSON tile names.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"256", "1024"})
+    private int size;
+
+    private WorldModel model;
+    private WorldModel target;
+    private List<TileType> layerOrder;
+    private CollisionMap collisionMap;
+    private String json;
+    private Path directory;
+    private Path worldFile;
+    private Path collisionFile;
+
+    @Setup
+    public void setup() throws IOException {
+        model = new WorldModel(size, size);
+        LayerStack layers = new LayerStack(model);
+        BenchmarkWorlds.generate(layers, BenchmarkWorlds.SEED);
+        layerOrder = layers.getLayers().stream().map(TileLayer::getType).toList();
+        target = new WorldModel(size, size);
+        collisionMap = CollisionRules.build(model, layerOrder, CollisionRules.LEVELS);
+
+        directory = Files.createTempDirectory("worldbuilder-bench");
+        worldFile = directory.resolve("bench" + WorldFile.EXTENSION);
+        collisionFile = directory.resolve("bench" + CollisionMap.EXTENSION);
+        WorldFile.write(model, worldFile);
+        collisionMap.write(collisionFile);
+
+        // A legacy world, one tile name per layer of every tile
+        String[][][] tileMap = new String[size][size][layerOrder.size()];
+        for (int i = 0; i < layerOrder.size(); i++) {
+            TileType type = layerOrder.get(i);
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    if (model.has(type, x, y)) {
+                        tileMap[x][y][i] = type.name();
+                    }
+                }
+            }
+        }
+        json = new Gson().toJson(tileMap);
+    }
+
+    @TearDown
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(worldFile);
+        Files.deleteIfExists(collisionFile);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void writeWorld() throws IOException {
+        WorldFile.write(model, worldFile);
+    }
+
+    @Benchmark
+    public void writeWorldUncompressed() throws IOException {
+        WorldFile.write(model, worldFile, false);
+    }
+
+    @Benchmark
+    public WorldModel readWorld() throws IOException {
+        WorldFile.read(worldFile, target);
+        return target;
+    }
+
+    @Benchmark
+    public CollisionMap buildCollisionMap() {
+        return CollisionRules.build(model, layerOrder, CollisionRules.LEVELS);
+    }
+
+    @Benchmark
+    public void writeCollisionMap() throws IOException {
+        collisionMap.write(collisionFile);
+    }
+
+    @Benchmark
+    public CollisionMap readCollisionMap() throws IOException {
+        return CollisionMap.read(collisionFile);
+    }
+
+    @Benchmark
+    public String[][][] parseLegacyJson() {
+        return new Gson().fromJson(json, String[][][].class);
+    }
+}
@@ -0,0 +1,125 @@
+package com.worldbuilder.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldbuilder.BenchmarkWorlds;
+import com.worldbuilder.TileType;
+
+/**
+ * Heap held by the tile state of a generated world, in the layer arrays the canvases
+ * used to keep and in the WorldModel. Run with -prof gc: gc.alloc.rate.norm is the
+ * footprint of each representation in bytes.
+ * The old layers are sized in pixels, so they stop fitting in a 2 GB heap well before
+ * 256x256 tiles; the sizes here stay small enough for both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FootprintBenchmark {
+    private static final int TILE_SIZE = 64;
+    private static final TileType[] LAYERS = {
+        TileType.WATER, TileType.FOAM, TileType.SAND, TileType.ROCKS, TileType.GRASS,
+        TileType.SHADOW, TileType.STAIRS, TileType.WALL, TileType.PLATEAU,
+        TileType.SANDFILL, TileType.GRASSFILL, TileType.BRIDGESHADOW, TileType.BRIDGE
+    };
+
+    @Param({"16", "32"})
+    private int size;
+
+    private WorldModel model;
+
+    // The tiles the old canvases kept per cell: a record around a shared variant, a rock type,
+    // an empty marker object, a flag, or the layer name
+    private record TileVariant(String name, int x, int y) {}
+    private record TerrainTile(TileVariant variant) {}
+    private record RocksTile(int rockType) {}
+    private static final class ShadowTileMap {}
+
+    private static final TileVariant VARIANT = new TileVariant("CENTER", 1, 1);
+
+    @Setup
+    public void setup() {
+        model = BenchmarkWorlds.create(size, size, BenchmarkWorlds.SEED);
+    }
+
+    /**
+     * The layers as the canvases held them before the WorldModel: one array per layer
+     * with a cell per pixel, of which only the cells at tile coordinates were used.
+     */
+    @Benchmark
+    public Object[] legacyLayers() {
+        int pixels = size * TILE_SIZE;
+        Object[] layers = new Object[LAYERS.length];
+        for (int i = 0; i < LAYERS.length; i++) {
+            TileType type = LAYERS[i];
+            switch (type) {
+                case WATER, BRIDGESHADOW -> {
+                    boolean[][] tileMap = new boolean[pixels][pixels];
+                    forEachTile(type, (x, y) -> tileMap[x][y] = true);
+                    layers[i] = tileMap;
+                }
+                case SANDFILL, GRASSFILL -> {
+                    String[][] tileMap = new String[pixels][pixels];
+                    forEachTile(type, (x, y) -> tileMap[x][y] = type.name());
+                    layers[i] = tileMap;
+                }
+                case ROCKS -> {
+                    RocksTile[][] tileMap = new RocksTile[pixels][pixels];
+                    forEachTile(type, (x, y) -> tileMap[x][y] = new RocksTile(WorldModel.subtypeOf(model.get(type, x, y))));
+                    layers[i] = tileMap;
+                }
+                case SHADOW -> {
+                    ShadowTileMap[][] tileMap = new ShadowTileMap[pixels][pixels];
+                    forEachTile(type, (x, y) -> tileMap[x][y] = new ShadowTileMap());
+                    layers[i] = tileMap;
+                }
+                default -> {
+                    TerrainTile[][] tileMap = new TerrainTile[pixels][pixels];
+                    forEachTile(type, (x, y) -> tileMap[x][y] = new TerrainTile(VARIANT));
+                    layers[i] = tileMap;
+                }
+            }
+        }
+        return layers;
+    }
+
+    /**
+     * The same world in a WorldModel, one short per tile of each allocated layer.
+     */
+    @Benchmark
+    public WorldModel worldModel() {
+        return model.copy();
+    }
+
+    private interface TileVisitor {
+        void visit(int x, int y);
+    }
+
+    private void forEachTile(TileType type, TileVisitor visitor) {
+        if (!model.hasLayer(type)) {
+            return;
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (model.has(type, x, y)) {
+                    visitor.visit(x, y);
+                }
+            }
+        }
+    }
+}
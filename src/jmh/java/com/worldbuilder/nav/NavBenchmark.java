@@ -0,0 +1,78 @@
+package com.worldbuilder.nav;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldbuilder.BenchmarkWorlds;
+import com.worldbuilder.Canvas.LayerStack;
+import com.worldbuilder.Canvas.TileLayer;
+import com.worldbuilder.TileType;
+import com.worldbuilder.io.CollisionMap;
+import com.worldbuilder.io.CollisionRules;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * Region labelling and path finding on a generated world with plateaus and stairs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NavBenchmark {
+    @Param({"256", "1024"})
+    private int size;
+
+    private NavGrid grid;
+    private PathFinder finder;
+    private int start;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        WorldModel model = new WorldModel(size, size);
+        LayerStack layers = new LayerStack(model);
+        BenchmarkWorlds.generate(layers, BenchmarkWorlds.SEED);
+        List<TileType> layerOrder = layers.getLayers().stream().map(TileLayer::getType).toList();
+        CollisionMap map = CollisionRules.build(model, layerOrder, CollisionRules.LEVELS);
+        grid = new NavGrid(map);
+        finder = new PathFinder(grid);
+
+        // The two nodes of the main area furthest apart in node order
+        Regions regions = Regions.analyze(grid);
+        int main = regions.getLargestRegion();
+        start = -1;
+        for (int node = 0; node < grid.getNodeCount(); node++) {
+            if (regions.regionOf(grid.xOf(node), grid.yOf(node), grid.levelOf(node)) == main) {
+                if (start == -1) {
+                    start = node;
+                }
+                goal = node;
+            }
+        }
+    }
+
+    @Benchmark
+    public Regions analyzeRegions() {
+        return Regions.analyze(grid);
+    }
+
+    @Benchmark
+    public int[] findPath() {
+        return finder.findPath(grid.xOf(start), grid.yOf(start), grid.levelOf(start),
+                grid.xOf(goal), grid.yOf(goal), grid.levelOf(goal));
+    }
+}
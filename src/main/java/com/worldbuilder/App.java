@@ -2,12 +2,19 @@ package com.worldbuilder;
 
 import com.worldbuilder.Canvas.WaterCanvas;
 import com.worldbuilder.Canvas.WorldCanvas;
+import java.util.concurrent.TimeUnit;
+
 import com.worldbuilder.debug.DebugInfo;
+import com.worldbuilder.debug.MetricsOverlay;
+import com.worldbuilder.metrics.FrameMetrics;
+import com.worldbuilder.metrics.MetricsReporter;
 import com.worldbuilder.ui.SidePanel;
 
 import javafx.application.Application;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.TextInputControl;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.StackPane;
@@ -16,9 +23,13 @@ import javafx.stage.Stage;
 public class App extends Application {
     private static final int WINDOW_WIDTH = 1200;
     private static final int WINDOW_HEIGHT = 800;
+    private static final long METRICS_DUMP_SECONDS = 10;
+    private static final double ZOOM_STEP = 1.25;
     
     static SidePanel sidePanel = new SidePanel();
     static WorldCanvas worldCanvas = new WorldCanvas(32, 32);
+    private final MetricsOverlay metricsOverlay = new MetricsOverlay();
+    private MetricsReporter metricsReporter;
     
     public static void main(String[] args) {
         // Hardware acceleration settings
@@ -46,13 +57,18 @@ public class App extends Application {
         BorderPane root = new BorderPane();
 
         // Stack the debug overlay on top of main application
-        StackPane overlayPane = new StackPane(worldCanvas, DebugInfo.getBox());
+        StackPane overlayPane = new StackPane(worldCanvas, DebugInfo.getBox(), metricsOverlay, worldCanvas.getMinimap());
         StackPane.setAlignment(DebugInfo.getBox(), Pos.TOP_RIGHT);
+        StackPane.setAlignment(metricsOverlay, Pos.BOTTOM_LEFT);
+        // Kept clear of the scroll bars
+        StackPane.setAlignment(worldCanvas.getMinimap(), Pos.BOTTOM_RIGHT);
+        StackPane.setMargin(worldCanvas.getMinimap(), new Insets(0, 24, 24, 0));
 
         overlayPane.setMaxSize(WINDOW_WIDTH - sidePanel.getTotalWidth(), WINDOW_HEIGHT);
         overlayPane.setMinSize(WINDOW_WIDTH - sidePanel.getTotalWidth(), WINDOW_HEIGHT);
         overlayPane.setPrefSize(WINDOW_WIDTH - sidePanel.getTotalWidth(), WINDOW_HEIGHT);
         sidePanel.setOverlayPane(overlayPane, WINDOW_WIDTH);
+        sidePanel.setWorldCanvas(worldCanvas);
 
         root.setRight(overlayPane);
         root.setLeft(sidePanel);
@@ -69,13 +85,65 @@ public class App extends Application {
 
         primaryStage.show();
 
+        // Metrics are recorded all the time, M shows them and they are written to a file periodically
+        FrameMetrics.attach(scene);
+        metricsReporter = new MetricsReporter(MetricsReporter.defaultFile(), METRICS_DUMP_SECONDS, TimeUnit.SECONDS);
+
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (!event.isShortcutDown()) {
+                // Keys typed into a text field (e.g. the brush size) are not shortcuts
+                if (scene.getFocusOwner() instanceof TextInputControl) {
+                    return;
+                }
+                switch (event.getCode()) {
+                    case DELETE, BACK_SPACE -> getWorldCanvas().deleteSelection();
+                    case ESCAPE -> getWorldCanvas().clearSelection();
+                    case R -> getWorldCanvas().toggleReachability();
+                    case M -> metricsOverlay.toggle();
+                    case N -> worldCanvas.getMinimap().setVisible(!worldCanvas.getMinimap().isVisible());
+                    default -> {
+                    }
+                }
+                return;
+            }
+            switch (event.getCode()) {
+                case Z -> {
+                    if (event.isShiftDown()) {
+                        getWorldCanvas().redo();
+                    } else {
+                        getWorldCanvas().undo();
+                    }
+                }
+                case Y -> getWorldCanvas().redo();
+                case S -> getWorldCanvas().save();
+                case PLUS, EQUALS, ADD -> getWorldCanvas().zoomBy(ZOOM_STEP);
+                case MINUS, SUBTRACT -> getWorldCanvas().zoomBy(1 / ZOOM_STEP);
+                case DIGIT0, NUMPAD0 -> getWorldCanvas().setZoom(1);
+                default -> {
+                }
+            }
+        });
+
         scene.addEventFilter(KeyEvent.KEY_RELEASED, event -> {
+            // A B typed into a text field (e.g. the seed) must not fill the world
+            if (scene.getFocusOwner() instanceof TextInputControl) {
+                return;
+            }
             switch (event.getCode()) {
                 case B -> getWorldCanvas().fillCanvas();
             }
         });
     }
 
+    @Override
+    public void stop() {
+        // Write what the autosave has not yet saved
+        worldCanvas.closeProject();
+        if (metricsReporter != null) {
+            metricsReporter.close();
+        }
+    }
+
     public static SidePanel getSidePanel() {
         return sidePanel;
     }
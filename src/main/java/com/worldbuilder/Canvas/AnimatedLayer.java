@@ -0,0 +1,82 @@
+package com.worldbuilder.Canvas;
+
+import com.worldbuilder.TileType;
+import com.worldbuilder.metrics.Metrics;
+import com.worldbuilder.metrics.Timer;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * Base class for layers whose sprites are animated.
+ * Frames are advanced by the shared {@link AnimationClock}, which only runs while
+ * at least one animated layer has tiles.
+ */
+public abstract class AnimatedLayer extends TileLayer {
+    private final int frameCount;
+    private final Timer tickTimer;
+
+    protected int currentFrame;
+    private int tileCount;
+    private AnimationClock clock;
+
+    protected AnimatedLayer(WorldModel model, TileType type, int frameCount) {
+        super(model, type);
+        this.frameCount = frameCount;
+        this.tickTimer = Metrics.timer("animation." + type.name().toLowerCase());
+        // Counted from the model, no clock is attached yet
+        this.tileCount = model.hasLayer(type) ? countTiles(model.getLayer(type)) : 0;
+    }
+
+    void attach(AnimationClock clock) {
+        this.clock = clock;
+    }
+
+    void nextFrame() {
+        currentFrame = (currentFrame + 1) % frameCount;
+    }
+
+    @Override
+    protected void setCell(int x, int y, short cell) {
+        boolean had = hasTile(x, y);
+        super.setCell(x, y, cell);
+        boolean has = cell != WorldModel.EMPTY;
+
+        if (had != has) {
+            tileCount += has ? 1 : -1;
+            // Only the transitions between empty and non-empty matter to the clock
+            if (clock != null && tileCount == (has ? 1 : 0)) {
+                clock.update();
+            }
+        }
+    }
+
+    /**
+     * Recounts the tiles of this layer after its cells were written directly.
+     */
+    public final void recount() {
+        tileCount = isAllocated() ? countTiles(cells) : 0;
+        if (clock != null) {
+            clock.update();
+        }
+    }
+
+    private static int countTiles(short[] cells) {
+        int count = 0;
+        for (short cell : cells) {
+            if (cell != WorldModel.EMPTY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Times the frames of this layer, from advancing it to redrawing the visible part.
+     */
+    Timer getTickTimer() {
+        return tickTimer;
+    }
+
+    public int getTileCount() {
+        return tileCount;
+    }
+}
@@ -0,0 +1,87 @@
+package com.worldbuilder.Canvas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Shared clock driving every animated layer.
+ * All layers advance together on a single AnimationTimer, only the part of each
+ * layer inside the viewport is redrawn, and the timer is stopped entirely while
+ * no animated tiles exist.
+ */
+final class AnimationClock {
+    private static final long FRAME_DURATION_NS = 100_000_000; // 100ms in nanoseconds
+
+    private final ChunkRenderer renderer;
+    private final List<AnimatedLayer> layers = new ArrayList<>();
+    private final AnimationTimer timer;
+
+    private boolean running;
+    private long lastFrameTime;
+
+    AnimationClock(ChunkRenderer renderer) {
+        this.renderer = renderer;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - lastFrameTime >= FRAME_DURATION_NS) {
+                    tick();
+                    lastFrameTime = now;
+                }
+            }
+        };
+    }
+
+    void register(AnimatedLayer layer) {
+        layers.add(layer);
+        layer.attach(this);
+        update();
+    }
+
+    /**
+     * Starts or stops the timer depending on whether any animated tiles exist.
+     */
+    void update() {
+        boolean active = false;
+        for (AnimatedLayer layer : layers) {
+            if (layer.getTileCount() > 0) {
+                active = true;
+                break;
+            }
+        }
+
+        if (active && !running) {
+            timer.start();
+            running = true;
+        } else if (!active && running) {
+            timer.stop();
+            running = false;
+        }
+    }
+
+    private void tick() {
+        // Zoomed far out the frames would hardly show, so they are not worth redrawing
+        if (!renderer.isAnimating()) {
+            return;
+        }
+        for (AnimatedLayer layer : layers) {
+            if (layer.getTileCount() > 0) {
+                long start = System.nanoTime();
+                layer.nextFrame();
+                renderer.repaintVisible(layer);
+                layer.getTickTimer().stop(start);
+            }
+        }
+    }
+
+    void stop() {
+        timer.stop();
+        running = false;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+}
@@ -1,41 +1,22 @@
 package com.worldbuilder.Canvas;
 
 import com.worldbuilder.SpriteLoader;
-import com.worldbuilder.debug.DebugInfo;
+import com.worldbuilder.SpriteRegion;
+import com.worldbuilder.SpriteSurface;
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
 
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
+public class BridgeShadowCanvas extends TileLayer {
+    private static final SpriteRegion SHADOW_TILE = SpriteLoader.getTile(SpriteLoader.Sheet.BRIDGE, 2, 3);
 
-public class BridgeShadowCanvas extends Canvas {
-    private final GraphicsContext gc = getGraphicsContext2D();
 
-    private final Image TILESET = SpriteLoader.getBridgeTileset();
-    private final boolean[][] tileMap;
-
-
-    public BridgeShadowCanvas(int width, int height) {
-        super(width, height);
-        tileMap = new boolean[width][height];
-    }
-
-    public void drawBridgeShadow(int x, int y) {
-        if (tileMap[x][y]) {
-            return;
-        }
-        gc.drawImage(TILESET, 2 * 64, 3 * 64, 64, 64, x * 64, y * 64, 64, 64);
-        tileMap[x][y] = true;
-        DebugInfo.setLastAction("Painted BRIDGE SHADOW at (" + x + ", " + y + ")");
-    }
-
-    public void deleteBridgeShadow(int currentTileX, int currentTileY) {
-        gc.clearRect(currentTileX * 64, currentTileY * 64, 64, 64);
-        tileMap[currentTileX][currentTileY] = false;
-        DebugInfo.setLastAction("Deleted BRIDGE SHADOW at (" + currentTileX + ", " + currentTileY + ")");
+    public BridgeShadowCanvas(WorldModel model) {
+        super(model, TileType.BRIDGESHADOW);
     }
 
-    public boolean[][] getTileMap() {
-        return tileMap;
+    @Override
+    protected void drawTile(SpriteSurface surface, int x, int y) {
+        SHADOW_TILE.draw(surface, x * 64, y * 64);
     }
 }
 
@@ -0,0 +1,79 @@
+package com.worldbuilder.Canvas;
+
+import java.util.Arrays;
+
+/**
+ * BrushTool - How the mouse edits the selected layer.
+ * The brush paints freehand with a round tip, the shapes are dragged from corner
+ * to corner and applied as one batch on release, and the selection marks a
+ * rectangle to fill or delete.
+ */
+public enum BrushTool {
+    BRUSH,
+    RECTANGLE,
+    ELLIPSE,
+    SELECT;
+
+    public static final int MIN_SIZE = 1;
+    public static final int MAX_SIZE = 32;
+
+    /**
+     * Tiles of the filled rectangle between two corners, clipped to the world.
+     * @return The tile indices (y * width + x)
+     */
+    static int[] rectangle(int ax, int ay, int bx, int by, int width, int height) {
+        int x0 = Math.max(0, Math.min(ax, bx));
+        int y0 = Math.max(0, Math.min(ay, by));
+        int x1 = Math.min(width - 1, Math.max(ax, bx));
+        int y1 = Math.min(height - 1, Math.max(ay, by));
+        if (x0 > x1 || y0 > y1) {
+            return new int[0];
+        }
+
+        int[] tiles = new int[(x1 - x0 + 1) * (y1 - y0 + 1)];
+        int count = 0;
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                tiles[count++] = y * width + x;
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Tiles of the filled ellipse inscribed in the rectangle between two corners,
+     * clipped to the world. A tile belongs to the ellipse if its centre does.
+     * @return The tile indices (y * width + x)
+     */
+    static int[] ellipse(int ax, int ay, int bx, int by, int width, int height) {
+        int x0 = Math.min(ax, bx);
+        int y0 = Math.min(ay, by);
+        int x1 = Math.max(ax, bx);
+        int y1 = Math.max(ay, by);
+        double radiusX = (x1 - x0 + 1) / 2.0;
+        double radiusY = (y1 - y0 + 1) / 2.0;
+        double centreX = x0 + radiusX;
+        double centreY = y0 + radiusY;
+
+        int from = Math.max(0, y0);
+        int to = Math.min(height - 1, y1);
+        int clippedWidth = Math.min(width - 1, x1) - Math.max(0, x0) + 1;
+        if (from > to || clippedWidth <= 0) {
+            return new int[0];
+        }
+
+        int[] tiles = new int[(to - from + 1) * clippedWidth];
+        int count = 0;
+        for (int y = from; y <= to; y++) {
+            // Half the width of the ellipse at the centre of this row
+            double dy = (y + 0.5 - centreY) / radiusY;
+            double half = radiusX * Math.sqrt(Math.max(0, 1 - dy * dy));
+            int left = Math.max(0, (int) Math.ceil(centreX - half - 0.5));
+            int right = Math.min(width - 1, (int) Math.floor(centreX + half - 0.5));
+            for (int x = left; x <= right; x++) {
+                tiles[count++] = y * width + x;
+            }
+        }
+        return Arrays.copyOf(tiles, count);
+    }
+}
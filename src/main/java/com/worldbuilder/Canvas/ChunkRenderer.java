@@ -0,0 +1,552 @@
+package com.worldbuilder.Canvas;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.worldbuilder.SpriteLoader;
+import com.worldbuilder.SpriteSurface;
+import com.worldbuilder.TileType;
+import com.worldbuilder.metrics.Metrics;
+import com.worldbuilder.metrics.Timer;
+
+import javafx.scene.Group;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+
+/**
+ * Renders the world in fixed-size chunks.
+ * Only chunks intersecting the viewport are backed by canvases. Chunks that scroll
+ * out of view are returned to a pool and rebound to the next chunk coming into view,
+ * so texture memory depends on the viewport size and not on the world size.
+ * Layers that only change when edited are flattened: every run of them between
+ * the animated layers is drawn into one canvas per chunk, and an edit redraws
+ * the run in the edited area only. Animated layers keep a canvas of their own so
+ * their frames can be redrawn alone. Ground and elevations together need at most
+ * five canvases per chunk instead of one per layer. A run only gets a canvas in
+ * a chunk while one of its layers has tiles there and is visible, so empty and
+ * hidden layers, e.g. of an unused elevation, hold no textures.
+ *
+ * When zoomed out, chunks are drawn at a lower level of detail: level k renders
+ * into canvases of 1/2^k the size from the atlas downsampled as much, so the
+ * pixels drawn per chunk shrink as quickly as the number of visible chunks grows.
+ * Far out the grid and detail layers are left out and animations stand still.
+ */
+final class ChunkRenderer {
+    static final int CHUNK_TILES = 8;
+    static final int CHUNK_SIZE = CHUNK_TILES * TileLayer.TILE_SIZE;
+    private static final int MAX_SPARE_CANVASES = 32;
+    static final int MAX_DETAIL_LEVEL = SpriteLoader.MIP_LEVELS - 1;
+    // Levels of detail from which animations stop, and from which the grid and detail layers are left out
+    private static final int STILL_LEVEL = 2;
+    private static final int SIMPLE_LEVEL = 3;
+    private static final Set<TileType> DETAIL_LAYERS = EnumSet.of(TileType.FOAM, TileType.SHADOW, TileType.BRIDGESHADOW);
+    private static final Timer VIEWPORT = Metrics.timer("render.viewport");
+    private static final Timer REPAINT = Metrics.timer("render.repaint");
+
+    private final Pane container;
+    private final List<TileLayer> layers;
+    // Runs of static layers and single animated layers, bottom to top, each drawn into one canvas
+    private final List<List<TileLayer>> bands = new ArrayList<>();
+    private int[] bandOf = new int[0];
+    private final int worldWidth;
+    private final int worldHeight;
+
+    private final Map<Long, Chunk> visibleChunks = new HashMap<>();
+    private final Deque<Chunk> pool = new ArrayDeque<>();
+    // Layer canvases released by chunks, reused before new ones are created
+    private final Deque<Canvas> spareCanvases = new ArrayDeque<>();
+    private final BitSet hiddenLayers = new BitSet();
+    private Minimap minimap;
+    private int surfaceCount;
+    private int canvasCount;
+    private int detailLevel;
+
+    // Tile range currently inside the viewport
+    private int visibleMinX;
+    private int visibleMinY;
+    private int visibleMaxX = -1;
+    private int visibleMaxY = -1;
+
+    /**
+     * Creates a new ChunkRenderer.
+     * @param container The pane the chunk surfaces are added to
+     * @param layers The layers to render, bottom to top
+     * @param worldWidth The width of the world in tiles
+     * @param worldHeight The height of the world in tiles
+     */
+    ChunkRenderer(Pane container, List<TileLayer> layers, int worldWidth, int worldHeight) {
+        this.container = container;
+        this.layers = new ArrayList<>();
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        addLayers(layers);
+    }
+
+    /**
+     * Adds layers on top of the ones already rendered, e.g. the layers of a new elevation.
+     */
+    void addLayers(List<? extends TileLayer> added) {
+        BitSet changed = new BitSet();
+        for (TileLayer layer : added) {
+            int index = layers.size();
+            layer.attach(this, index);
+            layers.add(layer);
+
+            // Static layers join the run below them unless that is an animated layer
+            if (bands.isEmpty() || layer instanceof AnimatedLayer || isAnimated(bands.size() - 1)) {
+                bands.add(new ArrayList<>());
+            }
+            bands.getLast().add(layer);
+            if (index >= bandOf.length) {
+                bandOf = Arrays.copyOf(bandOf, Math.max(16, index * 2));
+            }
+            bandOf[index] = bands.size() - 1;
+            changed.set(bands.size() - 1);
+        }
+        for (Chunk chunk : visibleChunks.values()) {
+            changed.stream().forEach(chunk::repaintBand);
+        }
+    }
+
+    private boolean isAnimated(int band) {
+        return bands.get(band).getFirst() instanceof AnimatedLayer;
+    }
+
+    /**
+     * Shows or hides a layer. A hidden layer releases its canvases and is not drawn
+     * until it is shown again.
+     */
+    void setVisible(TileLayer layer, boolean visible) {
+        if (visible == !hiddenLayers.get(layer.getIndex())) {
+            return;
+        }
+        hiddenLayers.set(layer.getIndex(), !visible);
+        // Pooled chunks are redrawn when they are bound again
+        for (Chunk chunk : visibleChunks.values()) {
+            chunk.repaintBand(bandOf[layer.getIndex()]);
+        }
+    }
+
+    boolean isVisible(TileLayer layer) {
+        return !hiddenLayers.get(layer.getIndex());
+    }
+
+    /**
+     * Sets the level of detail, 0 for full size and k for 1/2^k of it.
+     * Every chunk is dropped, the next {@link #updateViewport} draws the visible ones again.
+     */
+    void setDetailLevel(int level) {
+        if (level < 0 || level > MAX_DETAIL_LEVEL) {
+            throw new IllegalArgumentException("No level of detail " + level);
+        }
+        if (level == detailLevel) {
+            return;
+        }
+        detailLevel = level;
+        for (Chunk chunk : visibleChunks.values()) {
+            container.getChildren().remove(chunk.node);
+        }
+        for (Chunk chunk : pool) {
+            container.getChildren().remove(chunk.node);
+        }
+        visibleChunks.clear();
+        pool.clear();
+        spareCanvases.clear();
+        surfaceCount = 0;
+        canvasCount = 0;
+        visibleMaxX = -1;
+        visibleMaxY = -1;
+    }
+
+    /**
+     * Gets the level of detail for a zoom, the coarsest one that still has at least
+     * one canvas pixel per screen pixel.
+     */
+    static int detailLevelFor(double zoom) {
+        int level = 0;
+        while (level < MAX_DETAIL_LEVEL && zoom <= 1.0 / (2 << level)) {
+            level++;
+        }
+        return level;
+    }
+
+    int getDetailLevel() {
+        return detailLevel;
+    }
+
+    /**
+     * Checks if animated layers should advance, they stand still when zoomed far out.
+     */
+    boolean isAnimating() {
+        return detailLevel < STILL_LEVEL;
+    }
+
+    /**
+     * Checks if a layer is drawn at the current level of detail.
+     */
+    private boolean isDrawn(TileLayer layer) {
+        return !hiddenLayers.get(layer.getIndex())
+                && (detailLevel < SIMPLE_LEVEL || !DETAIL_LAYERS.contains(layer.getType()));
+    }
+
+    /**
+     * Binds chunks to the visible area and releases the ones that left it.
+     * Coordinates are in world pixels.
+     */
+    void updateViewport(double minX, double minY, double width, double height) {
+        long start = System.nanoTime();
+        visibleMinX = Math.max(0, (int) Math.floor(minX / TileLayer.TILE_SIZE));
+        visibleMinY = Math.max(0, (int) Math.floor(minY / TileLayer.TILE_SIZE));
+        visibleMaxX = Math.min(worldWidth - 1, (int) Math.floor((minX + width - 1) / TileLayer.TILE_SIZE));
+        visibleMaxY = Math.min(worldHeight - 1, (int) Math.floor((minY + height - 1) / TileLayer.TILE_SIZE));
+
+        int maxChunkX = (worldWidth - 1) / CHUNK_TILES;
+        int maxChunkY = (worldHeight - 1) / CHUNK_TILES;
+
+        int cx0 = clamp((int) Math.floor(minX / CHUNK_SIZE), maxChunkX);
+        int cy0 = clamp((int) Math.floor(minY / CHUNK_SIZE), maxChunkY);
+        int cx1 = clamp((int) Math.floor((minX + width - 1) / CHUNK_SIZE), maxChunkX);
+        int cy1 = clamp((int) Math.floor((minY + height - 1) / CHUNK_SIZE), maxChunkY);
+
+        Iterator<Chunk> iterator = visibleChunks.values().iterator();
+        while (iterator.hasNext()) {
+            Chunk chunk = iterator.next();
+            if (chunk.chunkX < cx0 || chunk.chunkX > cx1 || chunk.chunkY < cy0 || chunk.chunkY > cy1) {
+                iterator.remove();
+                chunk.release();
+                pool.push(chunk);
+            }
+        }
+
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                long key = key(cx, cy);
+                if (!visibleChunks.containsKey(key)) {
+                    Chunk chunk = pool.isEmpty() ? createChunk() : pool.pop();
+                    chunk.bind(cx, cy);
+                    visibleChunks.put(key, chunk);
+                }
+            }
+        }
+        VIEWPORT.stop(start);
+    }
+
+    /**
+     * Redraws a tile range (inclusive) of a layer in every visible chunk it touches.
+     * The range is grown by the layer's overhang so sprites reaching into it are kept.
+     */
+    void repaint(TileLayer layer, int x0, int y0, int x1, int y1) {
+        repaintChunks(layer, x0, y0, x1, y1);
+        if (minimap != null) {
+            minimap.update(x0, y0, x1, y1);
+        }
+    }
+
+    private void repaintChunks(TileLayer layer, int x0, int y0, int x1, int y1) {
+        int overhang = layer.getOverhang();
+        int minX = x0 - overhang;
+        int minY = y0 - overhang;
+        int maxX = x1 + overhang;
+        int maxY = y1 + overhang;
+
+        long start = System.nanoTime();
+        for (Chunk chunk : visibleChunks.values()) {
+            chunk.repaint(layer, minX, minY, maxX, maxY);
+        }
+        REPAINT.stop(start);
+    }
+
+    /**
+     * Redraws the part of a layer that is inside the viewport, e.g. for the next animation frame.
+     * The tiles themselves do not change, so the minimap is left alone.
+     */
+    void repaintVisible(TileLayer layer) {
+        if (visibleMaxX >= visibleMinX && visibleMaxY >= visibleMinY) {
+            repaintChunks(layer, visibleMinX, visibleMinY, visibleMaxX, visibleMaxY);
+        }
+    }
+
+    /**
+     * Redraws a layer in every visible chunk.
+     */
+    void repaintLayer(TileLayer layer) {
+        for (Chunk chunk : visibleChunks.values()) {
+            chunk.repaintBand(bandOf[layer.getIndex()]);
+        }
+    }
+
+    /**
+     * Redraws every layer in every visible chunk, e.g. after the model was replaced.
+     */
+    void redraw() {
+        for (Chunk chunk : visibleChunks.values()) {
+            for (int band = 0; band < bands.size(); band++) {
+                chunk.repaintBand(band);
+            }
+        }
+        if (minimap != null) {
+            minimap.redraw();
+        }
+    }
+
+    /**
+     * Sets the minimap recoloured along with the tiles repainted here.
+     */
+    void setMinimap(Minimap minimap) {
+        this.minimap = minimap;
+    }
+
+    /**
+     * Gets the rendered layers, bottom to top.
+     */
+    List<TileLayer> getLayers() {
+        return layers;
+    }
+
+    int getVisibleChunkCount() {
+        return visibleChunks.size();
+    }
+
+    /**
+     * Number of canvases of static runs and animated layers held by chunks, not counting the grid.
+     */
+    int getCanvasCount() {
+        return canvasCount;
+    }
+
+    /**
+     * Estimated texture memory held by all chunk surfaces, including pooled ones and spare canvases.
+     */
+    long getTextureBytes() {
+        long resolution = CHUNK_SIZE >> detailLevel;
+        return (surfaceCount + canvasCount + spareCanvases.size()) * resolution * resolution * 4;
+    }
+
+    private Chunk createChunk() {
+        Chunk chunk = new Chunk();
+        // Keep chunks below overlays such as the hover tile
+        container.getChildren().add(0, chunk.node);
+        surfaceCount++;
+        return chunk;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+
+    private static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A recyclable chunk surface with one canvas for the grid and one for each run
+     * of layers that has tiles in the chunk.
+     */
+    private final class Chunk {
+        private final Group node = new Group();
+        // Canvas pixels per world pixel, canvases are scaled back up to the chunk size
+        private final int level = detailLevel;
+        private final int resolution = CHUNK_SIZE >> level;
+        private final Canvas gridCanvas = new Canvas(resolution, resolution);
+        private Canvas[] canvases = new Canvas[bands.size()];
+        private SpriteSurface[] surfaces = new SpriteSurface[bands.size()];
+        private int chunkX;
+        private int chunkY;
+
+        Chunk() {
+            node.getChildren().add(gridCanvas);
+            node.setMouseTransparent(true);
+            if (level > 0) {
+                node.getTransforms().add(new Scale(1 << level, 1 << level));
+            }
+        }
+
+        /**
+         * Gets the context of a canvas, scaled so it is drawn in world pixels of this chunk.
+         * Callers restore it when done.
+         */
+        private GraphicsContext begin(Canvas canvas) {
+            GraphicsContext gc = canvas.getGraphicsContext2D();
+            gc.save();
+            gc.scale(1.0 / (1 << level), 1.0 / (1 << level));
+            return gc;
+        }
+
+        void bind(int chunkX, int chunkY) {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            node.setLayoutX(chunkX * CHUNK_SIZE);
+            node.setLayoutY(chunkY * CHUNK_SIZE);
+            node.setVisible(true);
+
+            drawGrid();
+            for (int band = 0; band < bands.size(); band++) {
+                repaintBand(band);
+            }
+        }
+
+        void release() {
+            node.setVisible(false);
+        }
+
+        /**
+         * Redraws every layer of a run in the whole chunk, releasing its canvas if none of them
+         * has anything to draw here.
+         */
+        void repaintBand(int band) {
+            int tileX = chunkX * CHUNK_TILES;
+            int tileY = chunkY * CHUNK_TILES;
+            List<TileLayer> drawn = new ArrayList<>();
+            for (TileLayer layer : bands.get(band)) {
+                int overhang = layer.getOverhang();
+                if (isDrawn(layer) && !layer.isEmpty(tileX - overhang, tileY - overhang,
+                        tileX + CHUNK_TILES - 1 + overhang, tileY + CHUNK_TILES - 1 + overhang)) {
+                    drawn.add(layer);
+                }
+            }
+            if (drawn.isEmpty()) {
+                releaseCanvas(band);
+                return;
+            }
+
+            GraphicsContext gc = begin(acquireCanvas(band));
+            gc.clearRect(0, 0, CHUNK_SIZE, CHUNK_SIZE);
+            gc.translate(-tileX * TileLayer.TILE_SIZE, -tileY * TileLayer.TILE_SIZE);
+            for (TileLayer layer : drawn) {
+                int overhang = layer.getOverhang();
+                layer.render(surfaces[band], tileX - overhang, tileY - overhang,
+                        tileX + CHUNK_TILES - 1 + overhang, tileY + CHUNK_TILES - 1 + overhang);
+            }
+            gc.restore();
+        }
+
+        /**
+         * Redraws the run of a layer inside a tile range (inclusive) already grown by the layer's overhang.
+         */
+        void repaint(TileLayer layer, int x0, int y0, int x1, int y1) {
+            int tileX = chunkX * CHUNK_TILES;
+            int tileY = chunkY * CHUNK_TILES;
+            int minX = Math.max(x0, tileX);
+            int minY = Math.max(y0, tileY);
+            int maxX = Math.min(x1, tileX + CHUNK_TILES - 1);
+            int maxY = Math.min(y1, tileY + CHUNK_TILES - 1);
+            if (minX > maxX || minY > maxY || !isDrawn(layer)) {
+                return;
+            }
+
+            int band = bandOf[layer.getIndex()];
+            if (band >= canvases.length || canvases[band] == null) {
+                // The run had nothing to draw here so far, draw the whole chunk if it has now
+                int overhang = layer.getOverhang();
+                if (!layer.isEmpty(minX - overhang, minY - overhang, maxX + overhang, maxY + overhang)) {
+                    repaintBand(band);
+                }
+                return;
+            }
+
+            double px = (minX - tileX) * TileLayer.TILE_SIZE;
+            double py = (minY - tileY) * TileLayer.TILE_SIZE;
+            double pw = (maxX - minX + 1) * TileLayer.TILE_SIZE;
+            double ph = (maxY - minY + 1) * TileLayer.TILE_SIZE;
+
+            // The layers of the run are blended in one canvas, so all of them are redrawn in the area
+            GraphicsContext gc = begin(canvases[band]);
+            gc.clearRect(px, py, pw, ph);
+            gc.beginPath();
+            gc.rect(px, py, pw, ph);
+            gc.clip();
+            gc.translate(-tileX * TileLayer.TILE_SIZE, -tileY * TileLayer.TILE_SIZE);
+            for (TileLayer bandLayer : bands.get(band)) {
+                if (isDrawn(bandLayer)) {
+                    int overhang = bandLayer.getOverhang();
+                    bandLayer.render(surfaces[band], minX - overhang, minY - overhang, maxX + overhang, maxY + overhang);
+                }
+            }
+            gc.restore();
+        }
+
+        /**
+         * Gets the canvas of a run, taking a spare one and inserting it above the
+         * canvases of the runs below if the run has none yet.
+         */
+        private Canvas acquireCanvas(int band) {
+            if (band >= canvases.length) {
+                canvases = Arrays.copyOf(canvases, bands.size());
+                surfaces = Arrays.copyOf(surfaces, bands.size());
+            }
+            if (canvases[band] == null) {
+                Canvas canvas = spareCanvases.isEmpty() ? new Canvas(resolution, resolution) : spareCanvases.pop();
+                int position = 1; // Above the grid
+                for (int i = 0; i < band; i++) {
+                    if (canvases[i] != null) {
+                        position++;
+                    }
+                }
+                node.getChildren().add(position, canvas);
+                canvases[band] = canvas;
+                surfaces[band] = SpriteSurface.of(canvas.getGraphicsContext2D(), level);
+                canvasCount++;
+            }
+            return canvases[band];
+        }
+
+        /**
+         * Removes the canvas of a run from this chunk, keeping it as a spare if there is room.
+         */
+        void releaseCanvas(int band) {
+            if (band >= canvases.length || canvases[band] == null) {
+                return;
+            }
+            Canvas canvas = canvases[band];
+            node.getChildren().remove(canvas);
+            canvases[band] = null;
+            surfaces[band] = null;
+            canvasCount--;
+            if (spareCanvases.size() < MAX_SPARE_CANVASES) {
+                canvas.getGraphicsContext2D().clearRect(0, 0, resolution, resolution);
+                spareCanvases.push(canvas);
+            }
+        }
+
+        private void drawGrid() {
+            GraphicsContext gc = begin(gridCanvas);
+            gc.clearRect(0, 0, CHUNK_SIZE, CHUNK_SIZE);
+            if (level >= SIMPLE_LEVEL) {
+                // Tiles are too small for the grid to help
+                gc.restore();
+                return;
+            }
+            gc.setStroke(Color.LIGHTGRAY);
+            // One canvas pixel wide at every level
+            gc.setLineWidth(1 << level);
+
+            int columns = Math.min(CHUNK_TILES, worldWidth - chunkX * CHUNK_TILES);
+            int rows = Math.min(CHUNK_TILES, worldHeight - chunkY * CHUNK_TILES);
+            double right = columns * TileLayer.TILE_SIZE;
+            double bottom = rows * TileLayer.TILE_SIZE;
+
+            // Draw vertical lines
+            for (int x = 0; x <= columns; x++) {
+                gc.strokeLine(x * TileLayer.TILE_SIZE + 0.5 * (1 << level), 0, x * TileLayer.TILE_SIZE + 0.5 * (1 << level), bottom);
+            }
+
+            // Draw horizontal lines
+            for (int y = 0; y <= rows; y++) {
+                gc.strokeLine(0, y * TileLayer.TILE_SIZE + 0.5 * (1 << level), right, y * TileLayer.TILE_SIZE + 0.5 * (1 << level));
+            }
+            gc.restore();
+        }
+    }
+}
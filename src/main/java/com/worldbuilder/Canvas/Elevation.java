@@ -1,5 +1,21 @@
 package com.worldbuilder.Canvas;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.EditHistory;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * Elevation - A level of terrain standing on the plateaus below it.
+ * Every elevation has its own model and undo history. Its layers allocate their
+ * cells when the first tile is painted on them and only get chunk canvases where
+ * they have tiles, so an elevation that is not used yet costs next to nothing.
+ */
 public class Elevation {
     private final SandCanvas sandCanvas;
     private final GrassCanvas grassCanvas;
@@ -12,20 +28,51 @@ public class Elevation {
     private final BridgeCanvas bridgeCanvas;
     private final BridgeShadowCanvas bridgeShadowCanvas;
 
+    private final WorldModel model;
+    private final EditHistory history;
+    private final List<TileLayer> layers = new ArrayList<>();
+    private final Map<TileType, TileLayer> layersByType = new EnumMap<>(TileType.class);
     private final int zIndex;
+    private boolean visible = true;
 
-    public Elevation(int width, int height, int zIndex) {
+    /**
+     * Creates an empty elevation.
+     * @param zIndex The level the elevation stands on, 1 for the first one above the ground
+     * @param historyBytes Memory budget of the undo history of this elevation
+     */
+    public Elevation(int width, int height, int zIndex, long historyBytes) {
         this.zIndex = zIndex;
-        this.sandCanvas = new SandCanvas(width, height);
-        this.grassCanvas = new GrassCanvas(width, height);
-        this.shadowCanvas = new ShadowCanvas(width, height);
-        this.stairsCanvas = new StairsCanvas(width, height);
-        this.wallCanvas = new WallCanvas(width, height);
-        this.plateauCanvas = new PlateauCanvas(width, height);
-        this.bridgeCanvas = new BridgeCanvas(width, height);
-        this.bridgeShadowCanvas = new BridgeShadowCanvas(width, height);
-        this.sandFillCanvas = new SandFillCanvas(width, height);
-        this.grassFillCanvas = new GrassFillCanvas(width, height);
+        this.model = new WorldModel(width, height);
+        this.history = new EditHistory(model, historyBytes);
+
+        // Bottom to top, in the same order as the layers of the ground
+        this.sandCanvas = add(new SandCanvas(model));
+        this.grassCanvas = add(new GrassCanvas(model));
+        this.shadowCanvas = add(new ShadowCanvas(model));
+        this.stairsCanvas = add(new StairsCanvas(model));
+        this.wallCanvas = add(new WallCanvas(model));
+        this.plateauCanvas = add(new PlateauCanvas(model));
+        this.sandFillCanvas = add(new SandFillCanvas(model));
+        this.grassFillCanvas = add(new GrassFillCanvas(model));
+        this.bridgeShadowCanvas = add(new BridgeShadowCanvas(model));
+        this.bridgeCanvas = add(new BridgeCanvas(model));
+    }
+
+    private <T extends TileLayer> T add(T layer) {
+        layers.add(layer);
+        layersByType.put(layer.getType(), layer);
+        return layer;
+    }
+
+    public List<TileLayer> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+
+    /**
+     * Gets the layer of a tile type, or null if elevations do not have it (e.g. water).
+     */
+    public TileLayer getLayer(TileType type) {
+        return layersByType.get(type);
     }
 
     public SandCanvas getSandCanvas() {
@@ -59,7 +106,7 @@ public class Elevation {
     public BridgeShadowCanvas getBridgeShadowCanvas() {
         return bridgeShadowCanvas;
     }
-    
+
     public SandFillCanvas getSandFillCanvas() {
         return sandFillCanvas;
     }
@@ -68,9 +115,26 @@ public class Elevation {
         return grassFillCanvas;
     }
 
+    public WorldModel getModel() {
+        return model;
+    }
+
+    public EditHistory getHistory() {
+        return history;
+    }
+
     public int getZIndex() {
         return zIndex;
     }
 
- 
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Only records the flag, the renderer releases or redraws the layers.
+     */
+    void setVisible(boolean visible) {
+        this.visible = visible;
+    }
 }
@@ -0,0 +1,203 @@
+package com.worldbuilder.Canvas;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.worldbuilder.TileType;
+import com.worldbuilder.io.CollisionMap;
+import com.worldbuilder.io.CollisionRules;
+import com.worldbuilder.io.WorldFile;
+import com.worldbuilder.metrics.Metrics;
+import com.worldbuilder.metrics.Timer;
+import com.worldbuilder.model.WorldModel;
+
+import javafx.concurrent.Task;
+
+/**
+ * Exports a snapshot of the world in the background: the world file and the
+ * collision map used by the game, as JSON tile names or as binary flags
+ * depending on its extension. Elevations add their tiles to the collision map
+ * on the levels they stand on. Progress is reported per row of each layer,
+ * and a cancelled export removes the files it already wrote.
+ */
+final class ExportTask extends Task<Void> {
+    private static final Timer EXPORT = Metrics.timer("io.export");
+
+    private final WorldModel snapshot;
+    private final List<WorldModel> elevations;
+    private final List<TileType> layerOrder;
+    private final int collisionLevels;
+    private final Path worldPath;
+    private final Path collisionPath;
+    private boolean worldStarted;
+    private boolean collisionStarted;
+
+    /**
+     * @param snapshot A copy of the world that nothing else writes to
+     * @param elevations Copies of the elevations, the first one standing on level 1
+     * @param layerOrder The layers from bottom to top, later layers override the collision of earlier ones
+     * @param worldPath The world file to write, or null to skip it
+     * @param collisionPath The collision map to write, or null to skip it
+     */
+    ExportTask(WorldModel snapshot, List<WorldModel> elevations, List<TileType> layerOrder, Path worldPath, Path collisionPath) {
+        this.snapshot = snapshot;
+        this.elevations = elevations;
+        this.layerOrder = layerOrder;
+        this.collisionLevels = CollisionRules.LEVELS + elevations.size();
+        this.worldPath = worldPath;
+        this.collisionPath = collisionPath;
+    }
+
+    @Override
+    protected Void call() throws IOException {
+        long start = System.nanoTime();
+        int height = snapshot.getHeight();
+        // Building the collision map is counted per row, writing each file as one row per layer
+        long collisionRows = (1L + elevations.size()) * layerOrder.size() * height;
+        long total = (collisionPath != null ? 2L * collisionRows : 0L)
+                + (worldPath != null ? (long) layerOrder.size() * height : 0L);
+        long done = 0;
+
+        try {
+            if (worldPath != null) {
+                updateMessage("Writing world");
+                worldStarted = true;
+                WorldFile.write(snapshot, elevations, worldPath, true);
+                done += (long) layerOrder.size() * height;
+                updateProgress(done, total);
+            }
+            if (isCancelled()) {
+                return cleanUp();
+            }
+
+            if (collisionPath != null) {
+                updateMessage("Building collision map");
+                boolean binary = collisionPath.getFileName().toString().endsWith(CollisionMap.EXTENSION);
+                Object collisionMap = binary ? buildCollisionFlags(done, total) : buildCollisionMap(done, total);
+                if (collisionMap == null) {
+                    return cleanUp();
+                }
+                done += collisionRows;
+
+                updateMessage("Writing collision map");
+                collisionStarted = true;
+                if (binary) {
+                    ((CollisionMap) collisionMap).write(collisionPath);
+                } else {
+                    try (Writer writer = Files.newBufferedWriter(collisionPath)) {
+                        new Gson().toJson(collisionMap, writer);
+                    }
+                }
+                updateProgress(total, total);
+            }
+            if (isCancelled()) {
+                return cleanUp();
+            }
+            EXPORT.stop(start);
+        } catch (IOException | RuntimeException e) {
+            if (isCancelled()) {
+                return cleanUp();
+            }
+            throw e;
+        }
+        return null;
+    }
+
+    /**
+     * Builds the collision map with tile names, or returns null if the export was cancelled.
+     */
+    private String[][][] buildCollisionMap(long done, long total) {
+        String[][][] collisionMap = new String[snapshot.getWidth()][snapshot.getHeight()][collisionLevels];
+        boolean complete = forEachTile(done, total, (type, x, y, base) -> {
+            switch (type) {
+                case GRASS, WATER, SAND, WALL, STAIRS -> collisionMap[x][y][base] = type.name();
+                case PLATEAU -> {
+                    collisionMap[x][y][base + 1] = "PLATEAU";
+                    collisionMap[x][y][base] = null;
+                }
+                case BRIDGE -> collisionMap[x][y][base + 1] = "BRIDGE";
+                default -> {
+                }
+            }
+        });
+        return complete ? collisionMap : null;
+    }
+
+    /**
+     * Builds the binary collision map with the same precedence as the named one,
+     * or returns null if the export was cancelled.
+     */
+    private CollisionMap buildCollisionFlags(long done, long total) {
+        CollisionMap collisionMap = new CollisionMap(snapshot.getWidth(), snapshot.getHeight(), collisionLevels);
+        boolean complete = forEachTile(done, total,
+                (type, x, y, base) -> CollisionRules.apply(collisionMap, type, x, y, base));
+        return complete ? collisionMap : null;
+    }
+
+    @FunctionalInterface
+    private interface TileVisitor {
+        void visit(TileType type, int x, int y, int base);
+    }
+
+    /**
+     * Visits every tile of every layer of the world and then of each elevation,
+     * bottom layer first, reporting progress per row.
+     * @return false if the export was cancelled
+     */
+    private boolean forEachTile(long done, long total, TileVisitor visitor) {
+        if (!forEachTile(snapshot, 0, done, total, visitor)) {
+            return false;
+        }
+        for (int i = 0; i < elevations.size(); i++) {
+            done += (long) layerOrder.size() * snapshot.getHeight();
+            if (!forEachTile(elevations.get(i), i + 1, done, total, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean forEachTile(WorldModel model, int base, long done, long total, TileVisitor visitor) {
+        int width = model.getWidth();
+        int height = model.getHeight();
+
+        for (TileType type : layerOrder) {
+            if (!model.hasLayer(type)) {
+                done += height;
+                continue;
+            }
+            short[] cells = model.getLayer(type);
+
+            // Layers are stored row by row, so this is a single linear scan
+            for (int y = 0; y < height; y++) {
+                if (isCancelled()) {
+                    return false;
+                }
+                for (int x = 0, index = y * width; x < width; x++, index++) {
+                    if (cells[index] != WorldModel.EMPTY) {
+                        visitor.visit(type, x, y, base);
+                    }
+                }
+                updateProgress(++done, total);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the files this export started to write.
+     */
+    private Void cleanUp() throws IOException {
+        if (worldStarted) {
+            Files.deleteIfExists(worldPath);
+        }
+        if (collisionStarted) {
+            Files.deleteIfExists(collisionPath);
+        }
+        return null;
+    }
+}
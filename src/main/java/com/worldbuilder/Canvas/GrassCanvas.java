@@ -1,5 +1,8 @@
 package com.worldbuilder.Canvas;
 
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
+
 /**
  * Canvas for rendering and managing grass terrain tiles.
  * Implements autotiling logic for grass textures.
@@ -26,8 +29,8 @@ public class GrassCanvas extends GroundCanvas {
         new GroundCanvas.TileVariant("SOLO", 3, 3)
     };
 
-    public GrassCanvas(int width, int height) {
-        super(width, height, "GRASS");
+    public GrassCanvas(WorldModel model) {
+        super(model, TileType.GRASS);
     }
 
     @Override
@@ -35,12 +38,4 @@ public class GrassCanvas extends GroundCanvas {
         return VARIANTS;
     }
 
-    // Convenience methods with specific terrain type
-    public void drawGrass(int x, int y, boolean updateNeighbors) {
-        drawTerrain(x, y, updateNeighbors);
-    }
-
-    public void deleteGrass(int x, int y) {
-        deleteTerrain(x, y);
-    }
 }
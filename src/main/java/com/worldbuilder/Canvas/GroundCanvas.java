@@ -1,74 +1,36 @@
 package com.worldbuilder.Canvas;
 
 import com.worldbuilder.SpriteLoader;
-import com.worldbuilder.debug.DebugInfo;
-
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
-import javafx.scene.paint.Color;
-
+import com.worldbuilder.SpriteSurface;
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.AutotileTable;
+import com.worldbuilder.model.WorldModel;
 
 /**
  * Abstract base class for ground tile canvases.
  * Provides common functionality for tile-based grounds with autotiling support.
  */
-public abstract class GroundCanvas extends Canvas {
-    protected static final int TILE_SIZE = 64;
-    protected static Image TILESET;
-    
-    static {
-        try {
-            TILESET = SpriteLoader.getGroundTileset();
-        } catch (Exception e) {
-            System.err.println("ERROR: Exception loading tileset image: " + e.getMessage());
-            e.printStackTrace();
-            TILESET = createFallbackImage();
-        }
-    }
-    
-    private static Image createFallbackImage() {
-        // Create a simple 4x4 grid pattern as fallback
-        Canvas fallbackCanvas = new Canvas(TILE_SIZE * 4, TILE_SIZE * 4);
-        GraphicsContext gc = fallbackCanvas.getGraphicsContext2D();
-        
-        // Fill with a light color
-        gc.setFill(Color.LIGHTGRAY);
-        gc.fillRect(0, 0, fallbackCanvas.getWidth(), fallbackCanvas.getHeight());
-        
-        // Draw grid lines
-        gc.setStroke(Color.DARKGRAY);
-        gc.setLineWidth(1);
-        for (int i = 0; i <= 4; i++) {
-            gc.strokeLine(i * TILE_SIZE, 0, i * TILE_SIZE, fallbackCanvas.getHeight());
-            gc.strokeLine(0, i * TILE_SIZE, fallbackCanvas.getWidth(), i * TILE_SIZE);
-        }
-        
-        return fallbackCanvas.snapshot(null, null);
-    }
-    
-    protected final GraphicsContext gc;
-    protected final TerrainTile[][] tileMap;
-    protected final String terrainType;
-
+public abstract class GroundCanvas extends TileLayer {
     /**
-     * Record to represent a tile variant with its position in the tileset.
+     * Variant index for each neighbour mask (TOP=1, RIGHT=2, BOTTOM=4, LEFT=8).
      */
-    protected record TileVariant(String name, int x, int y) {}
+    private static final AutotileTable AUTOTILE = AutotileTable.edges(
+        15, 14, 9, 6,   // SOLO, VER_BOTTOM, HOR_LEFT, BOTTOM_LEFT
+        12, 13, 0, 3,   // VER_TOP, VER_CENTER, TOP_LEFT, LEFT
+        11, 8, 10, 7,   // HOR_RIGHT, BOTTOM_RIGHT, HOR_CENTER, BOTTOM
+        2, 5, 1, 4      // TOP_RIGHT, RIGHT, TOP, CENTER
+    );
 
     /**
-     * Record to represent a terrain tile with its variant.
+     * Record to represent a tile variant with its position in the tileset.
      */
-    protected record TerrainTile(TileVariant variant) {}
+    protected record TileVariant(String name, int x, int y) {}
 
     /**
-     * Creates a new GroundCanvas with specified dimensions and terrain type.
+     * Creates a new GroundCanvas for the given terrain type.
      */
-    protected GroundCanvas(int width, int height, String terrainType) {
-        super(width, height);
-        this.gc = getGraphicsContext2D();
-        this.tileMap = new TerrainTile[width][height];
-        this.terrainType = terrainType;
+    protected GroundCanvas(WorldModel model, TileType type) {
+        super(model, type);
     }
 
     /**
@@ -77,78 +39,17 @@ public abstract class GroundCanvas extends Canvas {
     protected abstract TileVariant[] getTerrainVariants();
 
     /**
-     * Determines the appropriate tile variant based on neighboring tiles.
-     */
-    protected TileVariant determineVariant(int x, int y) {
-        TileVariant[] variants = getTerrainVariants();
-        
-        boolean hasTop = y > 0 && tileMap[x][y-1] != null;
-        boolean hasBottom = y < tileMap[0].length-1 && tileMap[x][y+1] != null;
-        boolean hasLeft = x > 0 && tileMap[x-1][y] != null;
-        boolean hasRight = x < tileMap.length-1 && tileMap[x+1][y] != null;
-
-        if (hasTop && hasBottom && hasLeft && hasRight) return variants[4];  // CENTER
-        if (hasLeft && hasRight && !hasTop && !hasBottom) return variants[10]; // HOR_CENTER
-        if (hasTop && hasBottom && !hasLeft && !hasRight) return variants[13]; // VER_CENTER
-        if (hasRight && hasBottom && !hasLeft && !hasTop) return variants[0];  // TOP_LEFT
-        if (hasLeft && hasBottom && !hasRight && !hasTop) return variants[2];  // TOP_RIGHT
-        if (hasRight && hasTop && !hasLeft && !hasBottom) return variants[6];  // BOTTOM_LEFT
-        if (hasLeft && hasTop && !hasRight && !hasBottom) return variants[8];  // BOTTOM_RIGHT
-        if (hasBottom && !hasTop && hasLeft && hasRight) return variants[1];   // TOP
-        if (hasTop && !hasBottom && hasLeft && hasRight) return variants[7];   // BOTTOM
-        if (hasRight && !hasLeft && hasTop && hasBottom) return variants[3];   // LEFT
-        if (hasLeft && !hasRight && hasTop && hasBottom) return variants[5];   // RIGHT
-        if (hasRight && !hasLeft && !hasTop && !hasBottom) return variants[9]; // HOR_LEFT
-        if (hasLeft && !hasRight && !hasTop && !hasBottom) return variants[11];// HOR_RIGHT
-        if (!hasRight && !hasLeft && !hasTop && hasBottom) return variants[12];// VER_TOP
-        if (!hasRight && !hasLeft && !hasBottom && hasTop) return variants[14];// VER_BOTTOM
-        return variants[15]; // SOLO
-    }
-
-    /**
-     * Draws a terrain tile at the specified coordinates.
-     */
-    public void drawTerrain(int x, int y, boolean updateNeighbors) {
-        TileVariant variant = determineVariant(x, y);
-        tileMap[x][y] = new TerrainTile(variant);
-
-        gc.drawImage(TILESET, 
-            variant.x() * TILE_SIZE, variant.y() * TILE_SIZE,
-            TILE_SIZE, TILE_SIZE,
-            x * TILE_SIZE, y * TILE_SIZE,
-            TILE_SIZE, TILE_SIZE
-        );
-
-        if (updateNeighbors) {
-            updateNeighbors(x, y);
-        }
-
-        DebugInfo.setLastAction("Painted " + terrainType + " at (" + x + ", " + y + ")");
-    }
-
-    /**
-     * Deletes a terrain tile at the specified coordinates.
-     */
-    public void deleteTerrain(int x, int y) {
-        if (tileMap[x][y] != null) {
-            tileMap[x][y] = null;
-            gc.clearRect(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-            updateNeighbors(x, y);
-            DebugInfo.setLastAction("Deleted " + terrainType + " at (" + x + ", " + y + ")");
-        }
-    }
-
-    /**
-     * Updates neighboring tiles after a terrain modification.
+     * Determines the index of the appropriate tile variant based on neighboring tiles.
      */
-    protected void updateNeighbors(int x, int y) {
-        if (x > 0 && tileMap[x-1][y] != null) drawTerrain(x-1, y, false);
-        if (x < tileMap.length-1 && tileMap[x+1][y] != null) drawTerrain(x+1, y, false);
-        if (y > 0 && tileMap[x][y-1] != null) drawTerrain(x, y-1, false);
-        if (y < tileMap[0].length-1 && tileMap[x][y+1] != null) drawTerrain(x, y+1, false);
+    @Override
+    protected int determineVariant(int x, int y) {
+        return AUTOTILE.resolve(cells, width, height, x, y);
     }
 
-    public TerrainTile[][] getTileMap() {
-        return tileMap;
+    @Override
+    protected void drawTile(SpriteSurface surface, int x, int y) {
+        TileVariant variant = getTerrainVariants()[WorldModel.variantOf(getCell(x, y))];
+        SpriteLoader.getTile(SpriteLoader.Sheet.GROUND, variant.x(), variant.y())
+            .draw(surface, x * TILE_SIZE, y * TILE_SIZE);
     }
 } 
\ No newline at end of file
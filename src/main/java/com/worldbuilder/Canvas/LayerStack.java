@@ -0,0 +1,124 @@
+package com.worldbuilder.Canvas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.worldbuilder.SpriteSurface;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * The world layers, bottom to top, all backed by the same model.
+ * Shared by the editor and the headless renderer so both composite in the same order.
+ */
+public final class LayerStack {
+    private final List<TileLayer> layers = new ArrayList<>();
+    private final WorldModel model;
+
+    private final WaterCanvas water;
+    private final FoamCanvas foam;
+    private final SandCanvas sand;
+    private final RocksCanvas rocks;
+    private final GrassCanvas grass;
+    private final ShadowCanvas shadow;
+    private final StairsCanvas stairs;
+    private final WallCanvas wall;
+    private final PlateauCanvas plateau;
+    private final SandFillCanvas sandFill;
+    private final GrassFillCanvas grassFill;
+    private final BridgeShadowCanvas bridgeShadow;
+    private final BridgeCanvas bridge;
+
+    public LayerStack(WorldModel model) {
+        this.model = model;
+        water = add(new WaterCanvas(model));
+        foam = add(new FoamCanvas(model));
+        sand = add(new SandCanvas(model));
+        rocks = add(new RocksCanvas(model));
+        grass = add(new GrassCanvas(model));
+        shadow = add(new ShadowCanvas(model));
+        stairs = add(new StairsCanvas(model));
+        wall = add(new WallCanvas(model));
+        plateau = add(new PlateauCanvas(model));
+        sandFill = add(new SandFillCanvas(model));
+        grassFill = add(new GrassFillCanvas(model));
+        bridgeShadow = add(new BridgeShadowCanvas(model));
+        bridge = add(new BridgeCanvas(model));
+    }
+
+    private <T extends TileLayer> T add(T layer) {
+        layers.add(layer);
+        return layer;
+    }
+
+    /**
+     * Draws every layer inside the given tile range (inclusive), bottom to top.
+     * Each layer's range is grown by its overhang, callers clip to the area they need.
+     */
+    public void render(SpriteSurface surface, int x0, int y0, int x1, int y1) {
+        for (TileLayer layer : layers) {
+            int overhang = layer.getOverhang();
+            layer.render(surface, x0 - overhang, y0 - overhang, x1 + overhang, y1 + overhang);
+        }
+    }
+
+    public List<TileLayer> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+
+    public WorldModel getModel() {
+        return model;
+    }
+
+    public WaterCanvas getWater() {
+        return water;
+    }
+
+    public FoamCanvas getFoam() {
+        return foam;
+    }
+
+    public SandCanvas getSand() {
+        return sand;
+    }
+
+    public RocksCanvas getRocks() {
+        return rocks;
+    }
+
+    public GrassCanvas getGrass() {
+        return grass;
+    }
+
+    public ShadowCanvas getShadow() {
+        return shadow;
+    }
+
+    public StairsCanvas getStairs() {
+        return stairs;
+    }
+
+    public WallCanvas getWall() {
+        return wall;
+    }
+
+    public PlateauCanvas getPlateau() {
+        return plateau;
+    }
+
+    public SandFillCanvas getSandFill() {
+        return sandFill;
+    }
+
+    public GrassFillCanvas getGrassFill() {
+        return grassFill;
+    }
+
+    public BridgeShadowCanvas getBridgeShadow() {
+        return bridgeShadow;
+    }
+
+    public BridgeCanvas getBridge() {
+        return bridge;
+    }
+}
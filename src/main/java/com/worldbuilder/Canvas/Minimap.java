@@ -0,0 +1,186 @@
+package com.worldbuilder.Canvas;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.worldbuilder.TileType;
+import com.worldbuilder.metrics.Metrics;
+import com.worldbuilder.metrics.Timer;
+import com.worldbuilder.model.WorldModel;
+
+import javafx.scene.Group;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Scale;
+
+/**
+ * Minimap - An overview of the whole world with one pixel per tile.
+ * Each pixel takes the colour of the topmost visible tile, read from the model.
+ * Edits recolour only the tiles they touch, the image is split into blocks so
+ * only the blocks holding those tiles are uploaded again, and nothing is ever
+ * rendered from the layer canvases. Clicking or dragging scrolls the world there.
+ */
+public final class Minimap extends Pane {
+    public static final int SIZE = 200;
+    private static final int BLOCK = 256;
+    private static final int BACKGROUND = 0xFF202020;
+    private static final Timer UPDATE = Metrics.timer("minimap.update");
+
+    // Colour of each tile type by ordinal, 0 for types that do not show, e.g. shadows
+    private static final int[] COLORS = new int[TileType.values().length];
+
+    static {
+        COLORS[TileType.WATER.ordinal()] = 0xFF4A9FB5;
+        COLORS[TileType.FOAM.ordinal()] = 0xFFB8E0E8;
+        COLORS[TileType.SAND.ordinal()] = 0xFFE3C987;
+        COLORS[TileType.SANDFILL.ordinal()] = 0xFFE3C987;
+        COLORS[TileType.ROCKS.ordinal()] = 0xFF8A8A80;
+        COLORS[TileType.GRASS.ordinal()] = 0xFF5E9E3A;
+        COLORS[TileType.GRASSFILL.ordinal()] = 0xFF5E9E3A;
+        COLORS[TileType.STAIRS.ordinal()] = 0xFFA08060;
+        COLORS[TileType.WALL.ordinal()] = 0xFF6B5A48;
+        COLORS[TileType.PLATEAU.ordinal()] = 0xFF7DB84F;
+        COLORS[TileType.BRIDGE.ordinal()] = 0xFF9C6B3C;
+    }
+
+    private final ChunkRenderer renderer;
+    private final int worldWidth;
+    private final int worldHeight;
+    private final int blockColumns;
+    private final WritableImage[] blocks;
+    private final double scale;
+    private final Rectangle viewport;
+    private BiConsumer<Integer, Integer> onJump = (x, y) -> {
+    };
+    // Colours of the tiles being updated, reused between updates
+    private int[] buffer = new int[0];
+
+    Minimap(ChunkRenderer renderer, int worldWidth, int worldHeight) {
+        this.renderer = renderer;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.blockColumns = (worldWidth + BLOCK - 1) / BLOCK;
+        this.blocks = new WritableImage[blockColumns * ((worldHeight + BLOCK - 1) / BLOCK)];
+        this.scale = (double) SIZE / Math.max(worldWidth, worldHeight);
+
+        Group image = new Group();
+        for (int i = 0; i < blocks.length; i++) {
+            int x0 = (i % blockColumns) * BLOCK;
+            int y0 = (i / blockColumns) * BLOCK;
+            blocks[i] = new WritableImage(Math.min(BLOCK, worldWidth - x0), Math.min(BLOCK, worldHeight - y0));
+            ImageView view = new ImageView(blocks[i]);
+            view.setSmooth(false);
+            view.setX(x0);
+            view.setY(y0);
+            image.getChildren().add(view);
+        }
+        image.getTransforms().add(new Scale(scale, scale));
+
+        viewport = new Rectangle(0, 0, Color.TRANSPARENT);
+        viewport.setStroke(Color.WHITE);
+        viewport.setMouseTransparent(true);
+
+        getChildren().addAll(image, viewport);
+        setMaxSize(worldWidth * scale, worldHeight * scale);
+        setPrefSize(worldWidth * scale, worldHeight * scale);
+        setStyle("-fx-border-color: rgba(0, 0, 0, 0.6); -fx-border-width: 2;");
+
+        setOnMousePressed(event -> jump(event.getX(), event.getY()));
+        setOnMouseDragged(event -> jump(event.getX(), event.getY()));
+        update(0, 0, worldWidth - 1, worldHeight - 1);
+    }
+
+    /**
+     * Sets what is called with the tile clicked on, to scroll the world to it.
+     */
+    void setOnJump(BiConsumer<Integer, Integer> onJump) {
+        this.onJump = onJump;
+    }
+
+    private void jump(double x, double y) {
+        int tileX = Math.min(Math.max(0, (int) (x / scale)), worldWidth - 1);
+        int tileY = Math.min(Math.max(0, (int) (y / scale)), worldHeight - 1);
+        onJump.accept(tileX, tileY);
+    }
+
+    /**
+     * Outlines the visible part of the world. Coordinates are in tiles.
+     */
+    void showViewport(double x, double y, double width, double height) {
+        viewport.setX(x * scale);
+        viewport.setY(y * scale);
+        viewport.setWidth(Math.min(width, worldWidth - x) * scale);
+        viewport.setHeight(Math.min(height, worldHeight - y) * scale);
+    }
+
+    /**
+     * Recolours a tile range (inclusive), clipped to the world.
+     */
+    void update(int x0, int y0, int x1, int y1) {
+        int minX = Math.max(0, x0);
+        int minY = Math.max(0, y0);
+        int maxX = Math.min(worldWidth - 1, x1);
+        int maxY = Math.min(worldHeight - 1, y1);
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<TileLayer> layers = renderer.getLayers();
+        for (int by = minY / BLOCK; by <= maxY / BLOCK; by++) {
+            for (int bx = minX / BLOCK; bx <= maxX / BLOCK; bx++) {
+                int blockX0 = Math.max(minX, bx * BLOCK);
+                int blockY0 = Math.max(minY, by * BLOCK);
+                int blockX1 = Math.min(maxX, bx * BLOCK + BLOCK - 1);
+                int blockY1 = Math.min(maxY, by * BLOCK + BLOCK - 1);
+                updateBlock(layers, by * blockColumns + bx, blockX0, blockY0, blockX1, blockY1);
+            }
+        }
+        UPDATE.stop(start);
+    }
+
+    /**
+     * Recolours every tile, e.g. after the model was replaced or a level was shown or hidden.
+     */
+    void redraw() {
+        update(0, 0, worldWidth - 1, worldHeight - 1);
+    }
+
+    private void updateBlock(List<TileLayer> layers, int block, int x0, int y0, int x1, int y1) {
+        int columns = x1 - x0 + 1;
+        int rows = y1 - y0 + 1;
+        int size = columns * rows;
+        if (buffer.length < size) {
+            buffer = new int[size];
+        }
+        Arrays.fill(buffer, 0, size, BACKGROUND);
+
+        // Layers are painted bottom to top, each one row by row straight from its cells
+        for (TileLayer layer : layers) {
+            int color = COLORS[layer.getType().ordinal()];
+            if (color == 0 || !layer.isAllocated() || !renderer.isVisible(layer)) {
+                continue;
+            }
+            short[] cells = layer.cells;
+            for (int row = 0; row < rows; row++) {
+                int cell = (y0 + row) * worldWidth + x0;
+                int pixel = row * columns;
+                for (int x = 0; x < columns; x++) {
+                    if (cells[cell + x] != WorldModel.EMPTY) {
+                        buffer[pixel + x] = color;
+                    }
+                }
+            }
+        }
+
+        int blockX = (block % blockColumns) * BLOCK;
+        int blockY = (block / blockColumns) * BLOCK;
+        blocks[block].getPixelWriter().setPixels(x0 - blockX, y0 - blockY, columns, rows,
+                PixelFormat.getIntArgbPreInstance(), buffer, 0, columns);
+    }
+}
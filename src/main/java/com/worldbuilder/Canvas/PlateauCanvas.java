@@ -1,25 +1,18 @@
 package com.worldbuilder.Canvas;
 
-import com.worldbuilder.SpriteLoader;
-import com.worldbuilder.debug.DebugInfo;
-
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
+import java.util.Arrays;
 
-public class PlateauCanvas extends Canvas {
-    private final GraphicsContext gc = getGraphicsContext2D();
-    private final int TILE_SIZE = 64;
+import com.worldbuilder.SpriteLoader;
+import com.worldbuilder.SpriteRegion;
+import com.worldbuilder.SpriteSurface;
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.AutotileTable;
+import com.worldbuilder.model.WorldModel;
 
-    private final PlateauTile[][] tileMap;
-    private final Image TILESET = SpriteLoader.getElevationTileset();
+public class PlateauCanvas extends TileLayer {
 
-    public PlateauCanvas(int width, int height) {
-        super(width, height);
-        this.tileMap = new PlateauTile[width][height];
-    }
-
-    private static record PlateauTile(TileVariant variant) {
+    public PlateauCanvas(WorldModel model) {
+        super(model, TileType.PLATEAU);
     }
 
     private static record TileVariant(String name, int x, int y) {
@@ -50,90 +43,27 @@ public class PlateauCanvas extends Canvas {
 
     };
 
-    public void drawPlateau(int x, int y, boolean updateNeighbors) {
-        TileVariant variant = determineVariant(x, y);
-        tileMap[x][y] = new PlateauTile(variant);
-
-        gc.drawImage(TILESET,
-                variant.x() * TILE_SIZE, variant.y() * TILE_SIZE,
-                TILE_SIZE, TILE_SIZE,
-                x * TILE_SIZE, y * TILE_SIZE,
-                TILE_SIZE, TILE_SIZE);
-
-        if (updateNeighbors) {
-            updateNeighbors(x, y);
-        }
-
-        DebugInfo.setLastAction("Painted plateau at (" + x + ", " + y + ")");
-    }
-
-    private TileVariant determineVariant(int x, int y) {
-        boolean hasTop = y > 0 && tileMap[x][y - 1] != null;
-        boolean hasBottom = y < tileMap[0].length - 1 && tileMap[x][y + 1] != null;
-        boolean hasLeft = x > 0 && tileMap[x - 1][y] != null;
-        boolean hasRight = x < tileMap.length - 1 && tileMap[x + 1][y] != null;
-
-        if (!hasTop && hasBottom && !hasLeft && hasRight)
-            return VARIANTS[0]; // TOP LEFT
-        else if (!hasTop && hasBottom && hasLeft && hasRight)
-            return VARIANTS[1]; // TOP CENTER
-        else if (!hasTop && hasBottom && hasLeft && !hasRight)
-            return VARIANTS[2]; // TOP RIGHT
-
-        else if (hasTop && hasBottom && !hasLeft && hasRight)
-            return VARIANTS[3]; // CENTER LEFT
-        else if (hasTop && hasBottom && hasLeft && hasRight)
-            return VARIANTS[4]; // CENTER
-        else if (hasTop && hasBottom && hasLeft && !hasRight)
-            return VARIANTS[5]; // CENTER RIGHT
-
-        else if (hasTop && !hasBottom && !hasLeft && hasRight)
-            return VARIANTS[6]; // BOTTOM LEFT
-        else if (hasTop && !hasBottom && hasLeft && hasRight)
-            return VARIANTS[7]; // BOTTOM CENTER
-        else if (hasTop && !hasBottom && hasLeft && !hasRight)
-            return VARIANTS[8]; // BOTTOM RIGHT
-
-        else if (!hasTop && hasBottom && !hasLeft && !hasRight)
-            return VARIANTS[9]; // LONG_TOP
-        else if (hasTop && hasBottom && !hasLeft && !hasRight)
-            return VARIANTS[10]; // LONG_CENTER
-        else if (hasTop && !hasBottom && !hasLeft && !hasRight)
-            return VARIANTS[11]; // LONG_BOTTOM
-
-        else if (!hasTop && !hasBottom && !hasLeft && hasRight)
-            return VARIANTS[12]; // WIDE_LEFT
-        else if (!hasTop && !hasBottom && hasLeft && hasRight)
-            return VARIANTS[13]; // WIDE_CENTER
-        else if (!hasTop && !hasBottom && hasLeft && !hasRight)
-            return VARIANTS[14]; // WIDE_RIGHT
-        else if (!hasTop && !hasBottom && !hasLeft && !hasRight)
-            return VARIANTS[15]; // SOLO
-        else
-            return null;
-    }
-
-    public void deletePlateau(int x, int y) {
-        if (tileMap[x][y] != null) {
-            tileMap[x][y] = null;
-            gc.clearRect(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-            updateNeighbors(x, y);
-            DebugInfo.setLastAction("Deleted plateau at (" + x + ", " + y + ")");
-        }
-    }
-
-    public void updateNeighbors(int x, int y) {
-        if (x > 0 && tileMap[x - 1][y] != null)
-            drawPlateau(x - 1, y, false);
-        if (x < tileMap.length - 1 && tileMap[x + 1][y] != null)
-            drawPlateau(x + 1, y, false);
-        if (y > 0 && tileMap[x][y - 1] != null)
-            drawPlateau(x, y - 1, false);
-        if (y < tileMap[0].length - 1 && tileMap[x][y + 1] != null)
-            drawPlateau(x, y + 1, false);
+    private static final SpriteRegion[] TILES = Arrays.stream(VARIANTS)
+            .map(variant -> SpriteLoader.getTile(SpriteLoader.Sheet.ELEVATION, variant.x(), variant.y()))
+            .toArray(SpriteRegion[]::new);
+
+    /**
+     * Variant index for each neighbour mask (TOP=1, RIGHT=2, BOTTOM=4, LEFT=8).
+     */
+    private static final AutotileTable AUTOTILE = AutotileTable.edges(
+            15, 11, 12, 6,  // SOLO, LONG_BOTTOM, WIDE_LEFT, BOTTOM_LEFT
+            9, 10, 0, 3,    // LONG_TOP, LONG_CENTER, TOP_LEFT, CENTER_LEFT
+            14, 8, 13, 7,   // WIDE_RIGHT, BOTTOM_RIGHT, WIDE_CENTER, BOTTOM_CENTER
+            2, 5, 1, 4      // TOP_RIGHT, CENTER_RIGHT, TOP_CENTER, CENTER
+    );
+
+    @Override
+    protected int determineVariant(int x, int y) {
+        return AUTOTILE.resolve(cells, width, height, x, y);
     }
 
-    public PlateauTile[][] getTileMap() {
-        return tileMap;
+    @Override
+    protected void drawTile(SpriteSurface surface, int x, int y) {
+        TILES[WorldModel.variantOf(getCell(x, y))].draw(surface, x * TILE_SIZE, y * TILE_SIZE);
     }
 }
@@ -0,0 +1,92 @@
+package com.worldbuilder.Canvas;
+
+import java.util.BitSet;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+
+/**
+ * Marks the tiles that cannot be reached from the main area of the world.
+ * The overlay only covers the viewport and is redrawn when it moves, so its
+ * size does not depend on the size of the world or the zoom.
+ */
+final class ReachabilityOverlay extends Canvas {
+    private static final Color UNREACHABLE = new Color(1, 0, 0, 0.35);
+
+    private final int tileSize;
+    private final int worldWidth;
+    private final int worldHeight;
+    private BitSet unreachable = new BitSet();
+    private double viewWidth;
+    private double viewHeight;
+    private double scale = 1;
+
+    ReachabilityOverlay(int tileSize, int worldWidth, int worldHeight) {
+        this.tileSize = tileSize;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        setMouseTransparent(true);
+        setVisible(false);
+    }
+
+    /**
+     * Shows the given tiles as unreachable.
+     * @param tiles One bit per tile, at y * width + x
+     */
+    void show(BitSet tiles) {
+        unreachable = tiles;
+        setVisible(true);
+        redraw();
+    }
+
+    void hide() {
+        unreachable = new BitSet();
+        setVisible(false);
+    }
+
+    /**
+     * Moves the overlay over the visible part of the world. Coordinates are in world pixels.
+     * @param scale Canvas pixels per world pixel, below 1 when zoomed out so the canvas
+     *              stays the size of the viewport on screen
+     */
+    void updateViewport(double minX, double minY, double width, double height, double scale) {
+        relocate(minX, minY);
+        viewWidth = width;
+        viewHeight = height;
+        this.scale = scale;
+        setWidth(Math.ceil(width * scale));
+        setHeight(Math.ceil(height * scale));
+        getTransforms().setAll(new Scale(1 / scale, 1 / scale));
+        if (isVisible()) {
+            redraw();
+        }
+    }
+
+    private void redraw() {
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.clearRect(0, 0, getWidth(), getHeight());
+        gc.save();
+        gc.scale(scale, scale);
+        gc.setFill(UNREACHABLE);
+
+        int x0 = Math.max(0, (int) (getLayoutX() / tileSize));
+        int y0 = Math.max(0, (int) (getLayoutY() / tileSize));
+        int x1 = Math.min(worldWidth - 1, (int) ((getLayoutX() + viewWidth) / tileSize));
+        int y1 = Math.min(worldHeight - 1, (int) ((getLayoutY() + viewHeight) / tileSize));
+
+        for (int y = y0; y <= y1; y++) {
+            int rowStart = y * worldWidth;
+            // Runs of unreachable tiles are filled as one rectangle
+            int x = unreachable.nextSetBit(rowStart + x0);
+            while (x != -1 && x <= rowStart + x1) {
+                int end = Math.min(unreachable.nextClearBit(x), rowStart + x1 + 1);
+                gc.fillRect((x - rowStart) * tileSize - getLayoutX(), y * tileSize - getLayoutY(),
+                        (end - x) * tileSize, tileSize);
+                x = unreachable.nextSetBit(end);
+            }
+        }
+        gc.restore();
+    }
+}
@@ -1,117 +1,39 @@
 package com.worldbuilder.Canvas;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-
 import com.worldbuilder.SpriteLoader;
-import com.worldbuilder.debug.DebugInfo;
-
-import javafx.animation.AnimationTimer;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
+import com.worldbuilder.SpriteSurface;
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
 
-public class RocksCanvas extends Canvas {
+public class RocksCanvas extends AnimatedLayer {
 
-    // Constants for tile dimensions and animation properties
-    private static final int TILE_SIZE = 64;
+    // Constants for animation properties
     private static final int GRID_SIZE = 2;  // 3x3 grid for output size
     private static final int FRAME_WIDTH = TILE_SIZE * GRID_SIZE;
     private static final int FRAME_HEIGHT = TILE_SIZE * GRID_SIZE;
     private static final int FRAME_COUNT = 8;
-    private static final long FRAME_DURATION_NS = 100_000_000; // 100ms in nanoseconds
-
-    // Load the 4 rock type images
-    private static final Image[] ROCKS_IMAGES = SpriteLoader.getAllRocksImages();
-
-    private final GraphicsContext gc;
-    private final RocksTile[][] tileMap;
-    private final AnimationTimer animator;
-    private int currentFrame;
-    private long lastFrameTime;
-    private final Set<RocksPosition> activeRocks;
-
-        public RocksCanvas(int width, int height) {
-            super(width, height);
-            this.gc = getGraphicsContext2D();
-            this.tileMap = new RocksTile[width][height];
-            this.animator = createAnimator();
-            this.animator.start();
-            this.activeRocks = Collections.synchronizedSet(new HashSet<>());
-        }
-
-        private static record RocksPosition(int centerX, int centerY) {}
-    
-        public static class RocksTile {
-            final int rockType;
 
-            RocksTile(int rockType) {
-                this.rockType = rockType;
-            }
 
-            public int getRockType() {
-                return rockType;
-            }
+        public RocksCanvas(WorldModel model) {
+            super(model, TileType.ROCKS, FRAME_COUNT);
         }
     
-        private AnimationTimer createAnimator() {
-            return new AnimationTimer() {
-                @Override
-                public void handle(long now) {
-                    if (now - lastFrameTime >= FRAME_DURATION_NS) {
-                        updateAnimation();
-                        lastFrameTime = now;
-                    }
-                }
-            };
-        }
-    
-        private void updateAnimation() {
-            currentFrame = (currentFrame + 1) % FRAME_COUNT;
-            gc.clearRect(0, 0, getWidth(), getHeight());
-            
-            // Use synchronized set to avoid concurrent modification
-            synchronized (activeRocks) {
-                activeRocks.forEach(pos -> draw2x2Rocks(pos.centerX(), pos.centerY()));
-            }
-        }
-    
-        /**
-         * Adds a new foam animation at the specified center position.
-         *
-         * @param x center X coordinate in tile units
-         * @param y center Y coordinate in tile units
-         */
-        public void drawRocks(int x, int y, int rockType) {
-            tileMap[x][y] = new RocksTile(rockType);
-            activeRocks.add(new RocksPosition(x, y));
-        DebugInfo.setLastAction("Added ROCKS at (" + x + ", " + y + ")");
-    }
-
     // This centers the image on the tile
-    private void draw2x2Rocks(int x, int y) {
-        getGraphicsContext2D().drawImage(
-            ROCKS_IMAGES[tileMap[x][y].rockType],
-            currentFrame * FRAME_WIDTH, 0,
-            FRAME_WIDTH, FRAME_HEIGHT,
+    @Override
+    protected void drawTile(SpriteSurface surface, int x, int y) {
+        SpriteLoader.getFrame(SpriteLoader.Sheet.rocks(getRockType(x, y)), currentFrame).draw(surface,
             (x - 1) * TILE_SIZE + TILE_SIZE / 2,
             (y - 1) * TILE_SIZE + TILE_SIZE / 2,
             FRAME_WIDTH, FRAME_HEIGHT
         );
     }
 
-    public void deleteRocks(int x, int y) {
-        tileMap[x][y] = null;
-        activeRocks.remove(new RocksPosition(x, y));
-        DebugInfo.setLastAction("Deleted ROCKS at (" + x + ", " + y + ")");
-    }
-
-    public void dispose() {
-        animator.stop();
+    @Override
+    protected int getOverhang() {
+        return 1;
     }
 
-    public RocksTile[][] getTileMap() {
-        return tileMap;
+    public int getRockType(int x, int y) {
+        return WorldModel.subtypeOf(getCell(x, y));
     }
 }
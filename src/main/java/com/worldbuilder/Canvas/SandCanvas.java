@@ -1,5 +1,8 @@
 package com.worldbuilder.Canvas;
 
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
+
 /**
  * Canvas for rendering and managing sand terrain tiles.
  * Implements autotiling logic for sand textures.
@@ -26,8 +29,8 @@ public class SandCanvas extends GroundCanvas {
         new GroundCanvas.TileVariant("SOLO", 8, 3)
     };
 
-    public SandCanvas(int width, int height) {
-        super(width, height, "SAND");
+    public SandCanvas(WorldModel model) {
+        super(model, TileType.SAND);
     }
 
     @Override
@@ -35,12 +38,4 @@ public class SandCanvas extends GroundCanvas {
         return VARIANTS;
     }
 
-    // Convenience methods with specific terrain type
-    public void drawSand(int x, int y, boolean updateNeighbors) {
-        drawTerrain(x, y, updateNeighbors);
-    }
-
-    public void deleteSand(int x, int y) {
-        deleteTerrain(x, y);
-    }
 }
@@ -0,0 +1,169 @@
+package com.worldbuilder.Canvas;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.worldbuilder.metrics.Histogram;
+import com.worldbuilder.metrics.Metrics;
+import com.worldbuilder.metrics.Timer;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Turns mouse drags into strokes of tiles.
+ * The line between consecutive drag positions is rasterized so fast drags do not
+ * skip tiles, a round brush tip is stamped at every point of it, every tile is
+ * taken once per stroke, and the collected tiles are applied to the layer as one
+ * batch per pulse instead of once per mouse event.
+ */
+final class StrokePainter {
+    // From the first tile of a batch being taken to the batch being applied
+    private static final Timer PAINT_LATENCY = Metrics.timer("paint.latency");
+    private static final Timer PAINT_APPLY = Metrics.timer("paint.apply");
+    private static final Histogram PAINT_BATCH = Metrics.histogram("paint.batch", "tiles");
+
+    private final int width;
+    private final int height;
+    private final BitSet visited;
+    private final AnimationTimer pulse;
+
+    private TileLayer layer;
+    private boolean erase;
+    private int subtype;
+    private int[] tipX = new int[0];
+    private int[] tipY = new int[0];
+    private int lastX;
+    private int lastY;
+
+    private int[] pending = new int[256];
+    private int pendingCount;
+    private long pendingSince;
+
+    StrokePainter(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.visited = new BitSet(width * height);
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                flush();
+            }
+        };
+    }
+
+    /**
+     * Starts a stroke at the given tile.
+     * @param layer The layer painted on
+     * @param erase Whether the stroke erases tiles instead of painting them
+     * @param subtype The subtype of painted tiles (e.g. the rock type)
+     * @param size The diameter of the brush tip in tiles
+     */
+    void begin(TileLayer layer, boolean erase, int subtype, int size, int x, int y) {
+        end();
+        this.layer = layer;
+        this.erase = erase;
+        this.subtype = subtype;
+        setTip(size);
+        this.lastX = x;
+        this.lastY = y;
+        add(x, y);
+        pulse.start();
+    }
+
+    /**
+     * Extends the stroke to the given tile, taking every tile on the line from the previous one.
+     */
+    void moveTo(int x, int y) {
+        if (layer == null || (x == lastX && y == lastY)) {
+            return;
+        }
+
+        // Bresenham's line from the last position, which was already added
+        int dx = Math.abs(x - lastX);
+        int dy = -Math.abs(y - lastY);
+        int stepX = lastX < x ? 1 : -1;
+        int stepY = lastY < y ? 1 : -1;
+        int error = dx + dy;
+        int cx = lastX;
+        int cy = lastY;
+        while (cx != x || cy != y) {
+            int doubled = 2 * error;
+            if (doubled >= dy) {
+                error += dy;
+                cx += stepX;
+            }
+            if (doubled <= dx) {
+                error += dx;
+                cy += stepY;
+            }
+            add(cx, cy);
+        }
+
+        lastX = x;
+        lastY = y;
+    }
+
+    /**
+     * Applies the remaining tiles and finishes the stroke.
+     */
+    void end() {
+        if (layer == null) {
+            return;
+        }
+        pulse.stop();
+        flush();
+        visited.clear();
+        layer = null;
+    }
+
+    private void setTip(int size) {
+        int[] tip = BrushTool.ellipse(0, 0, size - 1, size - 1, size, size);
+        tipX = new int[tip.length];
+        tipY = new int[tip.length];
+        // Offsets from the tile under the cursor, which is the centre of the tip
+        for (int i = 0; i < tip.length; i++) {
+            tipX[i] = tip[i] % size - (size - 1) / 2;
+            tipY[i] = tip[i] / size - (size - 1) / 2;
+        }
+    }
+
+    private void add(int x, int y) {
+        for (int i = 0; i < tipX.length; i++) {
+            addTile(x + tipX[i], y + tipY[i]);
+        }
+    }
+
+    private void addTile(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return;
+        }
+        int index = y * width + x;
+        if (visited.get(index)) {
+            return;
+        }
+        visited.set(index);
+
+        if (pendingCount == 0) {
+            pendingSince = System.nanoTime();
+        } else if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pending[pendingCount++] = index;
+    }
+
+    private void flush() {
+        if (layer == null || pendingCount == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (erase) {
+            layer.eraseTiles(pending, pendingCount);
+        } else {
+            layer.paintTiles(pending, pendingCount, subtype);
+        }
+        PAINT_APPLY.stop(start);
+        PAINT_LATENCY.stop(pendingSince);
+        PAINT_BATCH.record(pendingCount);
+        pendingCount = 0;
+    }
+}
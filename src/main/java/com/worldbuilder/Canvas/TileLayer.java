@@ -0,0 +1,385 @@
+package com.worldbuilder.Canvas;
+
+import java.util.Arrays;
+
+import com.worldbuilder.SpriteSurface;
+import com.worldbuilder.TileType;
+import com.worldbuilder.metrics.Metrics;
+import com.worldbuilder.metrics.Timer;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * Base class for a single world layer.
+ * Reads and writes its tiles in the shared {@link WorldModel} and knows how to draw
+ * them, while the pixels themselves live in the chunk surfaces managed by
+ * {@link ChunkRenderer}.
+ * The cells of the layer are only allocated when its first tile is written, until
+ * then the layer reads as empty and costs no memory.
+ */
+public abstract class TileLayer {
+    protected static final int TILE_SIZE = 64;
+    private static final Timer AUTOTILE = Metrics.timer("autotile");
+    private static final Timer FILL = Metrics.timer("fill");
+
+    protected final WorldModel model;
+    protected final TileType type;
+    // Null until the layer is allocated in the model, see isAllocated()
+    protected short[] cells;
+    protected final int width;
+    protected final int height;
+
+    private ChunkRenderer renderer;
+    private int index = -1;
+
+    /**
+     * Creates a new layer.
+     * @param model The world model holding the tiles
+     * @param type The model layer this layer reads and writes
+     */
+    protected TileLayer(WorldModel model, TileType type) {
+        this.model = model;
+        this.type = type;
+        this.width = model.getWidth();
+        this.height = model.getHeight();
+    }
+
+    void attach(ChunkRenderer renderer, int index) {
+        this.renderer = renderer;
+        this.index = index;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Checks whether the cells of this layer exist, picking them up once the model
+     * allocated them, whether by an edit of this layer or by loading a file.
+     */
+    protected final boolean isAllocated() {
+        if (cells == null) {
+            if (!model.hasLayer(type)) {
+                return false;
+            }
+            cells = model.getLayer(type);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether this layer has a tile at the given coordinates.
+     */
+    protected boolean hasTile(int x, int y) {
+        return isAllocated() && cells[y * width + x] != WorldModel.EMPTY;
+    }
+
+    protected short getCell(int x, int y) {
+        return isAllocated() ? cells[y * width + x] : WorldModel.EMPTY;
+    }
+
+    /**
+     * Checks whether this layer has no tile inside the given tile range (inclusive).
+     */
+    boolean isEmpty(int x0, int y0, int x1, int y1) {
+        if (!isAllocated()) {
+            return true;
+        }
+        int minX = Math.max(0, x0);
+        int maxX = Math.min(width - 1, x1);
+        for (int y = Math.max(0, y0); y <= Math.min(height - 1, y1); y++) {
+            for (int x = minX, index = y * width + minX; x <= maxX; x++, index++) {
+                if (cells[index] != WorldModel.EMPTY) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a tile through the model, so edits can be recorded for undo.
+     */
+    protected void setCell(int x, int y, short cell) {
+        model.write(type, y * width + x, cell);
+    }
+
+    /**
+     * Writes a tile straight into the model, without autotiling, repainting or logging.
+     * Used to bulk-load a layer, followed by {@link #resolveVariants()} and a single redraw.
+     */
+    public void loadTile(int x, int y, int subtype) {
+        if (cells == null) {
+            cells = model.getLayer(type);
+        }
+        cells[y * width + x] = WorldModel.pack(0, subtype);
+    }
+
+    /**
+     * Resolves the variant of every tile in one pass over the layer.
+     * Variants only depend on which neighbours are occupied, so the order does not matter.
+     */
+    public void resolveVariants() {
+        resolveVariants(0, height);
+    }
+
+    /**
+     * Resolves the variant of every tile in rows y0 (inclusive) to y1 (exclusive).
+     * Only the variants change, so bands of rows can be resolved on different threads.
+     */
+    public void resolveVariants(int y0, int y1) {
+        if (!isAllocated()) {
+            return;
+        }
+        for (int i = y0 * width; i < y1 * width; i++) {
+            short cell = cells[i];
+            if (cell != WorldModel.EMPTY) {
+                cells[i] = WorldModel.pack(determineVariant(i % width, i / width), WorldModel.subtypeOf(cell));
+            }
+        }
+    }
+
+    /**
+     * Determines the variant of the tile at the given coordinates.
+     * Layers without autotiling keep the variant they have.
+     */
+    protected int determineVariant(int x, int y) {
+        return WorldModel.variantOf(getCell(x, y));
+    }
+
+    /**
+     * Paints a batch of tiles given by index (y * width + x), then resolves the
+     * variants around them and repaints their area once.
+     */
+    public void paintTiles(int[] tiles, int count, int subtype) {
+        short cell = WorldModel.pack(0, subtype);
+        for (int i = 0; i < count; i++) {
+            setCell(tiles[i] % width, tiles[i] / width, cell);
+        }
+        refreshTiles(tiles, count);
+    }
+
+    /**
+     * Erases a batch of tiles given by index, then resolves the variants around
+     * them and repaints their area once.
+     */
+    public void eraseTiles(int[] tiles, int count) {
+        for (int i = 0; i < count; i++) {
+            setCell(tiles[i] % width, tiles[i] / width, WorldModel.EMPTY);
+        }
+        refreshTiles(tiles, count);
+    }
+
+    /**
+     * Fills the connected region around (x, y) holding the same kind of tile as
+     * (x, y) (empty, or the same subtype), using an iterative scanline fill.
+     * The region is autotiled and repainted once when the fill is done.
+     * @return The number of filled tiles
+     */
+    public int fillRegion(int x, int y, int subtype) {
+        long start = System.nanoTime();
+        short seed = getCell(x, y);
+        short cell = WorldModel.pack(0, subtype);
+        if (seed != WorldModel.EMPTY && WorldModel.subtypeOf(seed) == subtype) {
+            return 0; // Already filled
+        }
+
+        int[] filled = new int[256];
+        int count = 0;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = y * width + x;
+
+        while (top > 0) {
+            int index = stack[--top];
+            int row = index / width;
+            if (!matches(getCell(index % width, row), seed)) {
+                continue;
+            }
+
+            // Extend the span as far as the region reaches on this row
+            int left = index % width;
+            int right = left;
+            while (left > 0 && matches(getCell(left - 1, row), seed)) {
+                left--;
+            }
+            while (right < width - 1 && matches(getCell(right + 1, row), seed)) {
+                right++;
+            }
+
+            if (count + right - left + 1 > filled.length) {
+                filled = Arrays.copyOf(filled, Math.max(filled.length * 2, count + right - left + 1));
+            }
+            for (int i = left; i <= right; i++) {
+                setCell(i, row, cell);
+                filled[count++] = row * width + i;
+            }
+
+            // Seed one span per run of matching tiles on the rows above and below
+            for (int next = row - 1; next <= row + 1; next += 2) {
+                if (next < 0 || next >= height) {
+                    continue;
+                }
+                boolean inRun = false;
+                for (int i = left; i <= right; i++) {
+                    boolean match = matches(getCell(i, next), seed);
+                    if (match && !inRun) {
+                        if (top == stack.length) {
+                            stack = Arrays.copyOf(stack, top * 2);
+                        }
+                        stack[top++] = next * width + i;
+                    }
+                    inRun = match;
+                }
+            }
+        }
+
+        refreshTiles(filled, count);
+        FILL.stop(start);
+        return count;
+    }
+
+    private static boolean matches(short cell, short seed) {
+        return seed == WorldModel.EMPTY
+                ? cell == WorldModel.EMPTY
+                : cell != WorldModel.EMPTY && WorldModel.subtypeOf(cell) == WorldModel.subtypeOf(seed);
+    }
+
+    private void refreshTiles(int[] tiles, int count) {
+        if (count == 0) {
+            return;
+        }
+        int minX = width;
+        int minY = height;
+        int maxX = -1;
+        int maxY = -1;
+        for (int i = 0; i < count; i++) {
+            int x = tiles[i] % width;
+            int y = tiles[i] / width;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+
+        long start = System.nanoTime();
+        // The tiles and all their neighbours may have a different variant now. They are
+        // marked on a bit grid over the bounding box, grown by one tile in every direction
+        // a word at a time, so each tile is resolved once however the batch overlaps
+        int x0 = Math.max(0, minX - 1);
+        int y0 = Math.max(0, minY - 1);
+        int x1 = Math.min(width - 1, maxX + 1);
+        int rows = Math.min(height - 1, maxY + 1) - y0 + 1;
+        int words = ((x1 - x0) >> 6) + 1;
+
+        long[] painted = new long[rows * words];
+        for (int i = 0; i < count; i++) {
+            int bit = tiles[i] % width - x0;
+            painted[(tiles[i] / width - y0) * words + (bit >> 6)] |= 1L << bit;
+        }
+
+        long[] wide = new long[rows * words];
+        for (int r = 0; r < rows; r++) {
+            for (int w = 0; w < words; w++) {
+                int at = r * words + w;
+                long bits = painted[at];
+                long right = (bits << 1) | (w > 0 ? painted[at - 1] >>> 63 : 0);
+                long left = (bits >>> 1) | (w < words - 1 ? painted[at + 1] << 63 : 0);
+                wide[at] = bits | left | right;
+            }
+        }
+
+        for (int r = 0; r < rows; r++) {
+            int y = y0 + r;
+            for (int w = 0; w < words; w++) {
+                int at = r * words + w;
+                long bits = wide[at]
+                        | (r > 0 ? wide[at - words] : 0)
+                        | (r < rows - 1 ? wide[at + words] : 0);
+                while (bits != 0) {
+                    int x = x0 + (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    short cell = x <= x1 ? getCell(x, y) : WorldModel.EMPTY;
+                    if (cell != WorldModel.EMPTY) {
+                        setCell(x, y, WorldModel.pack(determineVariant(x, y), WorldModel.subtypeOf(cell)));
+                    }
+                }
+            }
+        }
+
+        AUTOTILE.stop(start);
+
+        invalidate(minX - 1, minY - 1, maxX + 1, maxY + 1);
+    }
+
+    /**
+     * Draws the tile at the given coordinates.
+     * The surface is translated so that world pixel coordinates can be used.
+     */
+    protected abstract void drawTile(SpriteSurface surface, int x, int y);
+
+    /**
+     * Number of tiles a sprite of this layer may reach beyond its own tile.
+     */
+    protected int getOverhang() {
+        return 0;
+    }
+
+    /**
+     * Draws every tile of this layer inside the given tile range (inclusive).
+     */
+    public void render(SpriteSurface surface, int x0, int y0, int x1, int y1) {
+        if (!isAllocated()) {
+            return;
+        }
+        int minX = Math.max(0, x0);
+        int minY = Math.max(0, y0);
+        int maxX = Math.min(width - 1, x1);
+        int maxY = Math.min(height - 1, y1);
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                if (hasTile(x, y)) {
+                    drawTile(surface, x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Requests a redraw of the given tile range (inclusive) in every visible chunk.
+     */
+    protected void invalidate(int x0, int y0, int x1, int y1) {
+        if (renderer != null) {
+            renderer.repaint(this, x0, y0, x1, y1);
+        }
+    }
+
+    protected void invalidate(int x, int y) {
+        invalidate(x, y, x, y);
+    }
+
+    /**
+     * Requests a redraw of this layer in every visible chunk.
+     */
+    protected void invalidateAll() {
+        if (renderer != null) {
+            renderer.repaintLayer(this);
+        }
+    }
+
+    protected boolean isOutOfBounds(int x, int y) {
+        return x < 0 || x >= width || y < 0 || y >= height;
+    }
+
+    public TileType getType() {
+        return type;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
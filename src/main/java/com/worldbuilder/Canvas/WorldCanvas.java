@@ -2,36 +2,89 @@ package com.worldbuilder.Canvas;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import com.google.gson.Gson;
 import com.worldbuilder.App;
+import com.worldbuilder.SpriteLoader;
 import com.worldbuilder.TileType;
 import com.worldbuilder.debug.DebugInfo;
+import com.worldbuilder.gen.WorldGenerator;
+import com.worldbuilder.io.CollisionMap;
+import com.worldbuilder.io.CollisionRules;
+import com.worldbuilder.io.ProjectAutosave;
+import com.worldbuilder.io.ProjectFile;
+import com.worldbuilder.io.WorldFile;
+import com.worldbuilder.metrics.Counter;
+import com.worldbuilder.metrics.Metrics;
+import com.worldbuilder.metrics.Timer;
+import com.worldbuilder.model.EditHistory;
+import com.worldbuilder.model.TileEdit;
+import com.worldbuilder.model.WorldModel;
+import com.worldbuilder.nav.NavGrid;
+import com.worldbuilder.nav.Regions;
 
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.concurrent.Task;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.scene.Group;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.input.MouseEvent;
-import javafx.scene.layout.StackPane;
+import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Scale;
 import javafx.stage.FileChooser;
 
 /**
  * WorldCanvas - A scrollable grid-based canvas for world building
- * Supports tile painting and grid visualization
+ * Supports tile painting and grid visualization.
+ * The world is rendered in chunks, only the ones in view are backed by canvases.
+ * Elevations are drawn above the ground, level 0, and edited one level at a time.
  */
 public final class WorldCanvas extends ScrollPane {
 
     // ================== CONSTANTS & FIELDS ==================//
 
     private final int TILE_SIZE = 64;
+    private static final long HISTORY_BYTES = 64L * 1024 * 1024;
+    private static final double MIN_ZOOM = 0.125;
+    private static final double MAX_ZOOM = 2;
+    private static final double OUTLINE_WIDTH = 2;
+    private static final long AUTOSAVE_SECONDS = 10;
+    private static final Timer IMPORT = Metrics.timer("io.import");
+    private static final Timer AUTOSAVE = Metrics.timer("io.autosave");
+    private static final Counter AUTOSAVE_BYTES = Metrics.counter("io.autosave.bytes");
+    private static final Executor BACKGROUND = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "WorldBackground");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final int WORLD_WIDTH;
     private final int WORLD_HEIGHT;
 
-    private final Canvas gridCanvas;
-    private final Canvas hoverCanvas;
-    private final StackPane canvasContainer;
+    private final Pane canvasContainer;
+    private final Rectangle hoverTile;
+    private final Rectangle shapePreview;
+    private final Rectangle selectionBox;
+    private final ReachabilityOverlay reachabilityOverlay;
+    private final ChunkRenderer chunkRenderer;
+    private final Minimap minimap;
+    // Screen pixels per world pixel, applied to the tile container so mouse events stay in world pixels
+    private final Scale zoomTransform = new Scale(1, 1);
+    private double zoom = 1;
+    private final AnimationClock animationClock;
 
     private final GrassCanvas grassCanvas;
     private final WaterCanvas waterCanvas;
@@ -44,19 +97,38 @@ public final class WorldCanvas extends ScrollPane {
     private final PlateauCanvas plateauCanvas;
     private final BridgeCanvas bridgeCanvas;
     private final BridgeShadowCanvas bridgeShadowCanvas;
-    private final List<Canvas> canvasList = new ArrayList<>();
+    private final WorldModel model;
+    private final LayerStack layerStack;
+    private final List<TileLayer> layerList = new ArrayList<>();
+    private final Map<TileType, TileLayer> layersByType = new EnumMap<>(TileType.class);
+    private final EditHistory history;
+    private final StrokePainter stroke;
+    private ProjectAutosave autosave;
     private final SandFillCanvas sandFillCanvas;
     private final GrassFillCanvas grassFillCanvas;
 
     private final List<Elevation> elevationCanvasList = new ArrayList<>();
+    private final ReadOnlyIntegerWrapper levelCount = new ReadOnlyIntegerWrapper(1);
+    private int activeLevel;
+    private boolean groundVisible = true;
 
-    private String[][][] collisionMap;
     
         // Current tile position (mouse)
         private int currentTileX;
         private int currentTileY;
-        private int previousTileX;
-        private int previousTileY;
+    
+        // Tool of the current mouse press, and the tile where it started
+        private BrushTool activeTool;
+        private boolean erasing;
+        private int anchorX;
+        private int anchorY;
+    
+        // Selected rectangle in tiles, inclusive
+        private boolean hasSelection;
+        private int selectionX0;
+        private int selectionY0;
+        private int selectionX1;
+        private int selectionY1;
     
         // ================== CONSTRUCTOR ==================//
     
@@ -70,82 +142,82 @@ public final class WorldCanvas extends ScrollPane {
             int width = WORLD_WIDTH * TILE_SIZE;
             int height = WORLD_HEIGHT * TILE_SIZE;
     
-            // Setup canvas container
-            canvasContainer = new StackPane();
-    
-            // Initialize main grid canvas
-            gridCanvas = new Canvas(width, height);
-            canvasList.add(gridCanvas);
+            // Setup canvas container, chunk surfaces are added to it as they come into view
+            canvasContainer = new Pane();
+            canvasContainer.setMinSize(width, height);
+            canvasContainer.setPrefSize(width, height);
+            canvasContainer.setMaxSize(width, height);
             setupMouseHandlers();
     
-            // Add drawing canvases to the container
-    
-            waterCanvas = new WaterCanvas(width, height);
-            canvasList.add(waterCanvas);
-    
-            foamCanvas = new FoamCanvas(width, height);
-            canvasList.add(foamCanvas);
-    
-            sandCanvas = new SandCanvas(width, height);
-            canvasList.add(sandCanvas);
-    
-            rocksCanvas = new RocksCanvas(width, height);
-            canvasList.add(rocksCanvas);
-    
-            grassCanvas = new GrassCanvas(width, height);
-            canvasList.add(grassCanvas);
-    
-            shadowCanvas = new ShadowCanvas(width, height);
-            canvasList.add(shadowCanvas);
+            // Create the layers, bottom to top, all backed by the same model
+            model = new WorldModel(WORLD_WIDTH, WORLD_HEIGHT);
     
-            stairsCanvas = new StairsCanvas(width, height);
-            canvasList.add(stairsCanvas);
-    
-            wallCanvas = new WallCanvas(width, height);
-            canvasList.add(wallCanvas);
-    
-            plateauCanvas = new PlateauCanvas(width, height);
-            canvasList.add(plateauCanvas);
-    
-            sandFillCanvas = new SandFillCanvas(width, height);
-            canvasList.add(sandFillCanvas);
+            layerStack = new LayerStack(model);
+            layerList.addAll(layerStack.getLayers());
+            for (TileLayer layer : layerList) {
+                layersByType.put(layer.getType(), layer);
+            }
+            history = new EditHistory(model, HISTORY_BYTES);
+            stroke = new StrokePainter(WORLD_WIDTH, WORLD_HEIGHT);
+
+            waterCanvas = layerStack.getWater();
+            foamCanvas = layerStack.getFoam();
+            sandCanvas = layerStack.getSand();
+            rocksCanvas = layerStack.getRocks();
+            grassCanvas = layerStack.getGrass();
+            shadowCanvas = layerStack.getShadow();
+            stairsCanvas = layerStack.getStairs();
+            wallCanvas = layerStack.getWall();
+            plateauCanvas = layerStack.getPlateau();
+            sandFillCanvas = layerStack.getSandFill();
+            grassFillCanvas = layerStack.getGrassFill();
+            bridgeShadowCanvas = layerStack.getBridgeShadow();
+            bridgeCanvas = layerStack.getBridge();
     
-            grassFillCanvas = new GrassFillCanvas(width, height);
-            canvasList.add(grassFillCanvas);
+            // Initialize hover tile, drawn above all chunks
+            hoverTile = new Rectangle(TILE_SIZE, TILE_SIZE, new Color(1, 1, 0, 0.1)); // Yellow with 10% opacity
+            hoverTile.setMouseTransparent(true);
+            canvasContainer.getChildren().add(hoverTile);
     
-            bridgeShadowCanvas = new BridgeShadowCanvas(width, height);
-            canvasList.add(bridgeShadowCanvas);
+            // Outlines of the shape being dragged and of the selection
+            shapePreview = createOutline(new Color(0.2, 0.6, 1, 0.25), Color.DODGERBLUE);
+            selectionBox = createOutline(Color.TRANSPARENT, Color.WHITE);
+            selectionBox.getStrokeDashArray().addAll(8.0, 8.0);
+            reachabilityOverlay = new ReachabilityOverlay(TILE_SIZE, WORLD_WIDTH, WORLD_HEIGHT);
+            canvasContainer.getChildren().addAll(reachabilityOverlay, shapePreview, selectionBox);
     
-            bridgeCanvas = new BridgeCanvas(width, height);
-            canvasList.add(bridgeCanvas);
+            chunkRenderer = new ChunkRenderer(canvasContainer, layerList, WORLD_WIDTH, WORLD_HEIGHT);
+            minimap = new Minimap(chunkRenderer, WORLD_WIDTH, WORLD_HEIGHT);
+            minimap.setOnJump(this::scrollTo);
+            chunkRenderer.setMinimap(minimap);
     
-            // Initialize hover canvas
-            hoverCanvas = new Canvas(width, height);
-            canvasList.add(hoverCanvas);
+            // One clock drives all animated layers
+            animationClock = new AnimationClock(chunkRenderer);
+            animationClock.register(foamCanvas);
+            animationClock.register(rocksCanvas);
+
+            DebugInfo.setCategory("ATLAS", String.format("built in %d ms",
+                    SpriteLoader.getAtlasBuildNanos() / 1_000_000));
     
             // Configure ScrollPane
             setupScrollPane(width, height);
+        }
     
-            // Draw initial grid
-            drawGrid();
-    
-            for (Canvas canvas : canvasList) {
-                canvas.setCache(true);
-                canvas.setCacheHint(javafx.scene.CacheHint.SPEED);
-                canvas.setMouseTransparent(true);
-            }
-    
-            gridCanvas.setMouseTransparent(false);
-    
-            // Add all canvases to the container
-            canvasContainer.getChildren().addAll(canvasList);
-    
+        private Rectangle createOutline(Color fill, Color stroke) {
+            Rectangle outline = new Rectangle(TILE_SIZE, TILE_SIZE, fill);
+            outline.setStroke(stroke);
+            outline.setStrokeWidth(OUTLINE_WIDTH);
+            outline.setMouseTransparent(true);
+            outline.setVisible(false);
+            return outline;
         }
     
         // ================== SCROLL PANE SETUP ==================//
     
         private void setupScrollPane(int width, int height) {
-            setContent(canvasContainer);
+            // The group takes the zoomed size of the container, so the scroll bars cover the zoomed world
+            canvasContainer.getTransforms().add(zoomTransform);
+            setContent(new Group(canvasContainer));
             setPannable(false); // Disable panning to prevent view movement when painting
             setHbarPolicy(ScrollBarPolicy.ALWAYS);
             setVbarPolicy(ScrollBarPolicy.ALWAYS);
@@ -168,6 +240,12 @@ public final class WorldCanvas extends ScrollPane {
             // Handle scroll events with throttling
             setOnScroll(event -> {
                 event.consume();
+                if (event.isShortcutDown()) {
+                    // Zoom around the tile under the cursor
+                    Point2D pivot = canvasContainer.sceneToLocal(event.getSceneX(), event.getSceneY());
+                    zoomAround(zoom * Math.exp(event.getDeltaY() * 0.002), pivot.getX(), pivot.getY());
+                    return;
+                }
                 double deltaX = event.getDeltaX() * scrollFactor;
                 double deltaY = event.getDeltaY() * scrollFactor;
     
@@ -175,25 +253,153 @@ public final class WorldCanvas extends ScrollPane {
                 setHvalue(getHvalue() - deltaX);
                 setVvalue(getVvalue() - deltaY);
             });
+    
+            // Keep the chunk surfaces in sync with the visible area
+            hvalueProperty().addListener((observable, oldValue, newValue) -> updateViewport());
+            vvalueProperty().addListener((observable, oldValue, newValue) -> updateViewport());
+            viewportBoundsProperty().addListener((observable, oldValue, newValue) -> updateViewport());
         }
     
+        /**
+         * Binds chunk surfaces to the part of the world currently visible in the viewport.
+         */
+        private void updateViewport() {
+            Bounds viewport = getViewportBounds();
+            double contentWidth = WORLD_WIDTH * TILE_SIZE * zoom;
+            double contentHeight = WORLD_HEIGHT * TILE_SIZE * zoom;
+
+            // Everything below works in world pixels
+            double minX = getHvalue() * Math.max(0, contentWidth - viewport.getWidth()) / zoom;
+            double minY = getVvalue() * Math.max(0, contentHeight - viewport.getHeight()) / zoom;
+            double width = viewport.getWidth() / zoom;
+            double height = viewport.getHeight() / zoom;
+
+            chunkRenderer.updateViewport(minX, minY, width, height);
+            reachabilityOverlay.updateViewport(minX, minY, width, height, Math.min(1, zoom));
+            minimap.showViewport(minX / TILE_SIZE, minY / TILE_SIZE, width / TILE_SIZE, height / TILE_SIZE);
+    
+            DebugInfo.setCategory("CHUNKS", String.format("%d visible, %d MB",
+                    chunkRenderer.getVisibleChunkCount(), chunkRenderer.getTextureBytes() / (1024 * 1024)));
+        }
+
+        /**
+         * Scrolls the viewport so it is centred on a tile, as far as the edges of the world allow.
+         */
+        public void scrollTo(int tileX, int tileY) {
+            Bounds viewport = getViewportBounds();
+            double scrollWidth = WORLD_WIDTH * TILE_SIZE * zoom - viewport.getWidth();
+            double scrollHeight = WORLD_HEIGHT * TILE_SIZE * zoom - viewport.getHeight();
+            if (scrollWidth > 0) {
+                setHvalue(Math.clamp(((tileX + 0.5) * TILE_SIZE * zoom - viewport.getWidth() / 2) / scrollWidth, 0, 1));
+            }
+            if (scrollHeight > 0) {
+                setVvalue(Math.clamp(((tileY + 0.5) * TILE_SIZE * zoom - viewport.getHeight() / 2) / scrollHeight, 0, 1));
+            }
+        }
+
+        // ================== ZOOM ==================//
+
+        /**
+         * Sets the zoom around the centre of the viewport, clamped to 1:8 to 2:1.
+         */
+        public void setZoom(double zoom) {
+            Bounds viewport = getViewportBounds();
+            double centerX = (getHvalue() * Math.max(0, WORLD_WIDTH * TILE_SIZE * this.zoom - viewport.getWidth())
+                    + viewport.getWidth() / 2) / this.zoom;
+            double centerY = (getVvalue() * Math.max(0, WORLD_HEIGHT * TILE_SIZE * this.zoom - viewport.getHeight())
+                    + viewport.getHeight() / 2) / this.zoom;
+            zoomAround(zoom, centerX, centerY);
+        }
+
+        public void zoomBy(double factor) {
+            setZoom(zoom * factor);
+        }
+
+        public double getZoom() {
+            return zoom;
+        }
+
+        /**
+         * Changes the zoom so the given point of the world stays where it is on screen.
+         * Coordinates are in world pixels.
+         */
+        private void zoomAround(double newZoom, double worldX, double worldY) {
+            newZoom = Math.clamp(newZoom, MIN_ZOOM, MAX_ZOOM);
+            if (newZoom == zoom) {
+                return;
+            }
+            Bounds viewport = getViewportBounds();
+            double offsetX = getHvalue() * Math.max(0, WORLD_WIDTH * TILE_SIZE * zoom - viewport.getWidth());
+            double offsetY = getVvalue() * Math.max(0, WORLD_HEIGHT * TILE_SIZE * zoom - viewport.getHeight());
+            double screenX = worldX * zoom - offsetX;
+            double screenY = worldY * zoom - offsetY;
+
+            zoom = newZoom;
+            zoomTransform.setX(zoom);
+            zoomTransform.setY(zoom);
+            chunkRenderer.setDetailLevel(ChunkRenderer.detailLevelFor(zoom));
+            for (Rectangle outline : List.of(shapePreview, selectionBox)) {
+                outline.setStrokeWidth(OUTLINE_WIDTH / zoom);
+            }
+
+            double scrollWidth = WORLD_WIDTH * TILE_SIZE * zoom - viewport.getWidth();
+            double scrollHeight = WORLD_HEIGHT * TILE_SIZE * zoom - viewport.getHeight();
+            setHvalue(scrollWidth > 0 ? Math.clamp((worldX * zoom - screenX) / scrollWidth, 0, 1) : 0);
+            setVvalue(scrollHeight > 0 ? Math.clamp((worldY * zoom - screenY) / scrollHeight, 0, 1) : 0);
+            updateViewport();
+
+            DebugInfo.setCategory("ZOOM", String.format("%.0f%%, detail level %d", zoom * 100,
+                    chunkRenderer.getDetailLevel()));
+        }
+
         // ================== MOUSE HANDLERS ==================//
     
         private void setupMouseHandlers() {
-            gridCanvas.setOnMouseMoved(this::updateTilePosition);
+            canvasContainer.setOnMouseMoved(this::updateTilePosition);
     
-            gridCanvas.setOnMousePressed(event -> {
+            canvasContainer.setOnMousePressed(event -> {
                 updateTilePosition(event);
     
                 // IF RIGHT CLICK
-                if (event.isSecondaryButtonDown()) {
-                    deleteTile();
+                erasing = event.isSecondaryButtonDown();
+                activeTool = App.getSidePanel().getSelectedTool();
+                anchorX = currentTileX;
+                anchorY = currentTileY;
+    
+                if (activeTool == BrushTool.BRUSH) {
+                    // Everything painted until the button is released is one undoable stroke
+                    activeHistory().begin(erasing ? "Delete" : "Paint");
+                    beginStroke();
                 } else {
-                    paintTile();
+                    showShape(activeTool == BrushTool.SELECT ? selectionBox : shapePreview);
+                }
+            });
+
+            canvasContainer.setOnMouseReleased(event -> {
+                switch (activeTool) {
+                    case BRUSH -> {
+                        stroke.end();
+                        activeHistory().end();
+                    }
+                    case RECTANGLE -> {
+                        shapePreview.setVisible(false);
+                        applyTiles(BrushTool.rectangle(anchorX, anchorY, currentTileX, currentTileY, WORLD_WIDTH, WORLD_HEIGHT),
+                                "Rectangle");
+                    }
+                    case ELLIPSE -> {
+                        shapePreview.setVisible(false);
+                        applyTiles(BrushTool.ellipse(anchorX, anchorY, currentTileX, currentTileY, WORLD_WIDTH, WORLD_HEIGHT),
+                                "Ellipse");
+                    }
+                    case SELECT -> select(anchorX, anchorY, currentTileX, currentTileY);
+                    case null -> {
+                    }
                 }
+                activeTool = null;
+                updateLevelInfo();
             });
     
-            gridCanvas.setOnMouseDragged(event -> {
+            canvasContainer.setOnMouseDragged(event -> {
                 updateTilePosition(event);
     
                 DebugInfo.updatePosition("COORDINATES", event.getX(), event.getY());
@@ -201,313 +407,482 @@ public final class WorldCanvas extends ScrollPane {
                 if (event.getX() < 0 || event.getY() < 0) {
                     event.consume();
                     DebugInfo.setError("CANNOT PAINT OUTSIDE OF CANVAS");
-                } else {
-                    if (event.isSecondaryButtonDown()) {
-                        deleteTile();
-                    } else {
-                        paintTile();
-                    }
+                } else if (activeTool == BrushTool.BRUSH) {
+                    // Tiles skipped between two drag events are filled in by the stroke
+                    stroke.moveTo(currentTileX, currentTileY);
+                } else if (activeTool != null) {
+                    showShape(activeTool == BrushTool.SELECT ? selectionBox : shapePreview);
                 }
             });
         }
     
         private void updateTilePosition(MouseEvent event) {
     
-            // removee hover effect from previous tile
-            previousTileX = currentTileX;
-            previousTileY = currentTileY;
-            hoverCanvas.getGraphicsContext2D().clearRect(previousTileX * TILE_SIZE, previousTileY * TILE_SIZE, TILE_SIZE,
-                    TILE_SIZE);
-    
             // Update tile coordinates directly from mouse position
             currentTileX = Math.min(Math.max(0, (int) (event.getX() / TILE_SIZE)), WORLD_WIDTH - 1);
             currentTileY = Math.min(Math.max(0, (int) (event.getY() / TILE_SIZE)), WORLD_HEIGHT - 1);
     
-            // add hover effect to current tile
-            hoverCanvas.getGraphicsContext2D().setFill(new Color(1, 1, 0, 0.1)); // Yellow with 10% opacity
-            hoverCanvas.getGraphicsContext2D().fillRect(currentTileX * TILE_SIZE, currentTileY * TILE_SIZE, TILE_SIZE,
-                    TILE_SIZE);
+            // move hover effect to current tile
+            hoverTile.relocate(currentTileX * TILE_SIZE, currentTileY * TILE_SIZE);
     
             DebugInfo.updateCoordinates("TILE", currentTileX, currentTileY);
         }
     
         // ================== DRAWING METHODS ==================//
     
-        private void paintTile() {
-            switch (App.getSidePanel().getSelectedLayer()) {
-                case WATER -> {
-                    waterCanvas.drawWater(currentTileX, currentTileY);
-                }
-                case FOAM -> {
-                    foamCanvas.drawFoam(currentTileX, currentTileY);
-                }
-                case SAND -> {
-                    sandCanvas.drawSand(currentTileX, currentTileY, true);
-                }
-                case GRASS -> {
-                    grassCanvas.drawGrass(currentTileX, currentTileY, true);
-                }
-                case SHADOW -> {
-                    shadowCanvas.drawShadow(currentTileX, currentTileY);
-                }
-                case ROCKS -> {
-                    rocksCanvas.drawRocks(currentTileX, currentTileY, App.getSidePanel().getSelectedRockType());
-                }
-                case STAIRS -> {
-                    stairsCanvas.drawStairs(currentTileX, currentTileY, true);
-                }
-                case DECO -> {
-                }
-                case WALL -> {
-                    wallCanvas.drawWall(currentTileX, currentTileY, true);
-                }
-                case PLATEAU -> {
-                    plateauCanvas.drawPlateau(currentTileX, currentTileY, true);
-                }
-                case BRIDGE -> {
-                    bridgeCanvas.drawBridge(currentTileX, currentTileY, true);
-                }
-                case BRIDGESHADOW -> {
-                    bridgeShadowCanvas.drawBridgeShadow(currentTileX, currentTileY);
-                }
-                case GRASSFILL -> {
-                    grassFillCanvas.drawGrassFill(currentTileX, currentTileY);
-                }
-                case SANDFILL -> {
-                    sandFillCanvas.drawSandFill(currentTileX, currentTileY);
-                }
-                case null -> DebugInfo.setError("NO LAYER SELECTED");
-                default -> DebugInfo.setError("NO LAYER SELECTED");
+        /**
+         * Starts a paint or delete stroke on the selected layer at the current tile.
+         * The stroke collects tiles as the mouse is dragged and applies them once per frame.
+         */
+        private void beginStroke() {
+            TileLayer layer = getSelectedLayer();
+            if (layer != null) {
+                stroke.begin(layer, erasing, getSelectedSubtype(), App.getSidePanel().getBrushSize(), currentTileX, currentTileY);
+                DebugInfo.setLastAction((erasing ? "Deleting " : "Painting ") + layer.getType());
             }
         }
     
-        private void deleteTile() {
-            switch (App.getSidePanel().getSelectedLayer()) {
-                case WATER -> {
-                    waterCanvas.deleteWater(currentTileX, currentTileY);
-                }
-                case FOAM -> {
-                    foamCanvas.deleteFoam(currentTileX, currentTileY);
-                }
-                case SAND -> {
-                    sandCanvas.deleteSand(currentTileX, currentTileY);
-                }
-                case GRASS -> {
-                    grassCanvas.deleteGrass(currentTileX, currentTileY);
-                }
-                case SHADOW -> {
-                    shadowCanvas.deleteShadow(currentTileX, currentTileY);
-                }
-                case ROCKS -> {
-                    rocksCanvas.deleteRocks(currentTileX, currentTileY);
-                }
-                case STAIRS -> {
-                    stairsCanvas.deleteStairs(currentTileX, currentTileY);
-                }
-                case WALL -> {
-                    wallCanvas.deleteWall(currentTileX, currentTileY);
-                }
-                case PLATEAU -> {
-                    plateauCanvas.deletePlateau(currentTileX, currentTileY);
-                }
-                case BRIDGE -> {
-                    bridgeCanvas.deleteBridge(currentTileX, currentTileY);
-                }
-                case BRIDGESHADOW -> {
-                    bridgeShadowCanvas.deleteBridgeShadow(currentTileX, currentTileY);
-                }
-                case GRASSFILL -> {
-                    grassFillCanvas.deleteGrassFill(currentTileX, currentTileY);
-                }
-                case SANDFILL -> {
-                    sandFillCanvas.deleteSandFill(currentTileX, currentTileY);
+        /**
+         * Paints or deletes the given tiles on the selected layer as one undoable batch.
+         */
+        private void applyTiles(int[] tiles, String name) {
+            TileLayer layer = getSelectedLayer();
+            if (layer == null) {
+                return;
+            }
+    
+            EditHistory levelHistory = activeHistory();
+            levelHistory.begin(erasing ? "Delete " + name : name);
+            try {
+                if (erasing) {
+                    layer.eraseTiles(tiles, tiles.length);
+                } else {
+                    layer.paintTiles(tiles, tiles.length, getSelectedSubtype());
                 }
-                case null -> DebugInfo.setError("NO LAYER SELECTED");
-                default -> DebugInfo.setError("NO LAYER SELECTED");
+            } finally {
+                levelHistory.end();
             }
+            DebugInfo.setLastAction((erasing ? "Deleted " : "Painted ") + tiles.length + " " + layer.getType() + " tiles");
         }
     
-        public void drawGrid() {
-            GraphicsContext gc = gridCanvas.getGraphicsContext2D();
-            gc.setStroke(Color.LIGHTGRAY);
-            gc.setLineWidth(1);
-    
-            // Draw vertical lines
-            for (int x = 0; x <= WORLD_WIDTH; x++) {
-                gc.strokeLine(x * TILE_SIZE, 0, x * TILE_SIZE, gridCanvas.getHeight());
+        /**
+         * Gets the layer chosen in the side panel on the active level, or null if none
+         * (or DECO) is selected, the level does not have it or the level is hidden.
+         */
+        private TileLayer getSelectedLayer() {
+            TileType tileType = App.getSidePanel().getSelectedLayer();
+            if (!isLevelVisible(activeLevel)) {
+                DebugInfo.setError("LEVEL " + activeLevel + " IS HIDDEN");
+                return null;
             }
-    
-            // Draw horizontal lines
-            for (int y = 0; y <= WORLD_HEIGHT; y++) {
-                gc.strokeLine(0, y * TILE_SIZE, gridCanvas.getWidth(), y * TILE_SIZE);
+            TileLayer layer = tileType == null ? null : findLayer(activeLevel, tileType);
+            if (layer == null && tileType == null) {
+                DebugInfo.setError("NO LAYER SELECTED");
+            } else if (layer == null && tileType != TileType.DECO) {
+                DebugInfo.setError(tileType + " IS NOT ON LEVEL " + activeLevel);
             }
+            return layer;
         }
 
+        /**
+         * Gets the layer of a tile type on a level, or null if the level does not have it.
+         */
+        private TileLayer findLayer(int level, TileType type) {
+            return level == 0 ? layersByType.get(type) : elevationCanvasList.get(level - 1).getLayer(type);
+        }
+
+        /**
+         * Gets the history of the level being edited.
+         */
+        private EditHistory activeHistory() {
+            return activeLevel == 0 ? history : elevationCanvasList.get(activeLevel - 1).getHistory();
+        }
+    
+        private int getSelectedSubtype() {
+            return App.getSidePanel().getSelectedLayer() == TileType.ROCKS ? App.getSidePanel().getSelectedRockType() : 0;
+        }
+    
+        // ================== SHAPES & SELECTION ==================//
+    
+        /**
+         * Stretches a shape outline from the anchor tile to the current tile.
+         */
+        private void showShape(Rectangle shape) {
+            int x0 = Math.min(anchorX, currentTileX);
+            int y0 = Math.min(anchorY, currentTileY);
+            double width = (Math.abs(currentTileX - anchorX) + 1) * TILE_SIZE;
+            double height = (Math.abs(currentTileY - anchorY) + 1) * TILE_SIZE;
+    
+            shape.relocate(x0 * TILE_SIZE, y0 * TILE_SIZE);
+            shape.setWidth(width);
+            shape.setHeight(height);
+            // Fully rounded corners turn the preview into the ellipse
+            boolean round = shape == shapePreview && activeTool == BrushTool.ELLIPSE;
+            shape.setArcWidth(round ? width : 0);
+            shape.setArcHeight(round ? height : 0);
+            shape.setVisible(true);
+        }
+    
+        private void select(int ax, int ay, int bx, int by) {
+            selectionX0 = Math.min(ax, bx);
+            selectionY0 = Math.min(ay, by);
+            selectionX1 = Math.max(ax, bx);
+            selectionY1 = Math.max(ay, by);
+            hasSelection = true;
+            DebugInfo.setLastAction("Selected (" + selectionX0 + ", " + selectionY0 + ") to (" + selectionX1 + ", " + selectionY1 + ")");
+        }
+    
+        public void clearSelection() {
+            hasSelection = false;
+            selectionBox.setVisible(false);
+        }
+    
+        /**
+         * Deletes the tiles of the selected layer inside the selection.
+         */
+        public void deleteSelection() {
+            if (!hasSelection) {
+                DebugInfo.setError("NOTHING SELECTED");
+                return;
+            }
+            erasing = true;
+            applyTiles(BrushTool.rectangle(selectionX0, selectionY0, selectionX1, selectionY1, WORLD_WIDTH, WORLD_HEIGHT),
+                    "Selection");
+        }
+    
     /**
-     * Fills up canvas with water.
+     * Bucket fill: fills the selection if there is one, otherwise the connected
+     * region under the cursor on the selected layer.
      */
     public void fillCanvas() {
-        // Gets the current tileType
-        TileType tileType = App.getSidePanel().getSelectedLayer();
-
-        if (tileType != null) {
-            // Runs through every tile in the map and paints it
-            for (int i = 0; i < canvasList.size(); i++) {
-                for (int x = 0; x < WORLD_WIDTH; x++) {
-                    for (int y = 0; y < WORLD_HEIGHT; y++) {
-                        switch (tileType) {
-                            case WATER -> waterCanvas.drawWater(x, y);
-                            //case SAND -> sandCanvas.drawSand(x, y, false);
-                            //case GRASS -> grassCanvas.drawGrass(x, y, false);
-                        }
-                    }
-                }
-            }
+        if (hasSelection) {
+            erasing = false;
+            applyTiles(BrushTool.rectangle(selectionX0, selectionY0, selectionX1, selectionY1, WORLD_WIDTH, WORLD_HEIGHT),
+                    "Fill");
+            return;
         }
+
+        TileLayer layer = getSelectedLayer();
+        if (layer == null) {
+            return;
+        }
+
+        EditHistory levelHistory = activeHistory();
+        levelHistory.begin("Fill");
+        int filled;
+        try {
+            filled = layer.fillRegion(currentTileX, currentTileY, getSelectedSubtype());
+        } finally {
+            levelHistory.end();
+        }
+        DebugInfo.setLastAction("Filled " + filled + " " + layer.getType() + " tiles at (" + currentTileX + ", " + currentTileY + ")");
     }
-    
-        // ================== SAVE, LOAD, EXPORT, IMPORT ==================//
-    
-        public void export() {
-            int numberOfCanvases = canvasList.size();
-            collisionMap = new String[WORLD_WIDTH][WORLD_HEIGHT][2 + elevationCanvasList.size()];
 
-            String[][][] tileMap = new String[WORLD_WIDTH][WORLD_HEIGHT][numberOfCanvases - 2];
+    // ================== LEVELS ==================//
 
-            for (int i = 1; i < numberOfCanvases - 1; i++) {
+    /**
+     * Adds an elevation on top of the highest level. Its layers are empty and hold
+     * no memory or textures until something is painted on them.
+     * @return The new level
+     */
+    public int addElevation() {
+        int level = elevationCanvasList.size() + 1;
+        Elevation elevation = new Elevation(WORLD_WIDTH, WORLD_HEIGHT, level, HISTORY_BYTES);
+        elevationCanvasList.add(elevation);
+        chunkRenderer.addLayers(elevation.getLayers());
+        levelCount.set(getLevelCount());
+        DebugInfo.setLastAction("Added level " + level);
+        updateLevelInfo();
+        return level;
+    }
 
-                Canvas canvas = canvasList.get(i);
+    /**
+     * Selects the level painting, filling, undo and redo work on.
+     */
+    public void setActiveLevel(int level) {
+        if (level < 0 || level > elevationCanvasList.size()) {
+            throw new IllegalArgumentException("No level " + level);
+        }
+        activeLevel = level;
+        DebugInfo.setLastAction("Editing level " + level);
+    }
 
-                for (int x = 0; x < WORLD_WIDTH; x++) {
-                    for (int y = 0; y < WORLD_HEIGHT; y++) {
-                        switch (canvas.getClass().getSimpleName()) {
-                            case "GrassCanvas" -> {
-                                if (grassCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "GRASS";
-                                    collisionMap[x][y][0] = "GRASS";
-                                }
-                            }
-                            case "WaterCanvas" -> {
-                                if (waterCanvas.getTileMap()[x][y]) {
-                                    tileMap[x][y][i - 1] = "WATER";
-                                    collisionMap[x][y][0] = "WATER";
-                                }
-                            }
-                            case "FoamCanvas" -> {
-                                if (foamCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "FOAM";
-                                }
-                            }
-                            case "SandCanvas" -> {
-                                if (sandCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "SAND";
-                                    collisionMap[x][y][0] = "SAND";
-                                }
-                            }
-                            case "RocksCanvas" -> {
-                                if (rocksCanvas.getTileMap()[x][y] != null) {
-                                    int rockType = rocksCanvas.getTileMap()[x][y].getRockType() + 1;
-                                    tileMap[x][y][i - 1] = "ROCKS" + rockType;
-                                }
-                            }
-                            case "ShadowCanvas" -> {
-                                if (shadowCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "SHADOW";
-                                }
-                            }
-                            case "WallCanvas" -> {
-                                if (wallCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "WALL";
-                                    collisionMap[x][y][0] = "WALL";
-                                }
-                            }
-                            case "PlateauCanvas" -> {
-                                if (plateauCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "PLATEAU";
-                                    collisionMap[x][y][1] = "PLATEAU";
-                                    collisionMap[x][y][0] = null;
-                                }
-                            }
-                            case "StairsCanvas" -> {
-                                if (stairsCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "STAIRS";
-                                    collisionMap[x][y][0] = "STAIRS";
-                                }
-                            }
-                            case "BridgeCanvas" -> {
-                                if (bridgeCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "BRIDGE";
-                                    collisionMap[x][y][1] = "BRIDGE";
-                                }
-                            }
-                            case "BridgeShadowCanvas" -> {
-                                if (bridgeShadowCanvas.getTileMap()[x][y]) {
-                                    tileMap[x][y][i - 1] = "BRIDGESHADOW";
-                                }
-                            }
-                            case "SandFillCanvas" -> {
-                                if (sandFillCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "SANDFILL";
-                                }
-                            }
-                            case "GrassFillCanvas" -> {
-                                if (grassFillCanvas.getTileMap()[x][y] != null) {
-                                    tileMap[x][y][i - 1] = "GRASSFILL";
-                                }
-                            }
-                            default -> {
-                            }
-                        }
+    /**
+     * Shows or hides a level. A hidden level is not rendered at all and releases its textures.
+     */
+    public void setLevelVisible(int level, boolean visible) {
+        List<TileLayer> layers;
+        if (level == 0) {
+            groundVisible = visible;
+            layers = layerList;
+        } else {
+            Elevation elevation = elevationCanvasList.get(level - 1);
+            elevation.setVisible(visible);
+            layers = elevation.getLayers();
+        }
+        for (TileLayer layer : layers) {
+            chunkRenderer.setVisible(layer, visible);
+        }
+        minimap.redraw();
+        updateLevelInfo();
+    }
+
+    public boolean isLevelVisible(int level) {
+        return level == 0 ? groundVisible : elevationCanvasList.get(level - 1).isVisible();
+    }
+
+    public int getActiveLevel() {
+        return activeLevel;
+    }
+
+    /**
+     * Number of levels, the ground and every elevation.
+     */
+    public int getLevelCount() {
+        return elevationCanvasList.size() + 1;
+    }
+
+    /**
+     * Number of levels, updated whenever an elevation is added, whether by the user or by
+     * loading or importing a world with more elevations.
+     */
+    public ReadOnlyIntegerProperty levelCountProperty() {
+        return levelCount.getReadOnlyProperty();
+    }
+
+    private void updateLevelInfo() {
+        long bytes = model.getMemoryFootprint();
+        for (Elevation elevation : elevationCanvasList) {
+            bytes += elevation.getModel().getMemoryFootprint();
+        }
+        DebugInfo.setCategory("LEVELS", String.format("%d levels, %d KB tiles, %d layer canvases, %d MB",
+                getLevelCount(), bytes / 1024, chunkRenderer.getCanvasCount(),
+                chunkRenderer.getTextureBytes() / (1024 * 1024)));
+    }
+
+    // ================== NAVIGATION ==================//
+
+    private record Reachability(BitSet unreachable, int regions, long nanos) {}
+
+    /**
+     * Shows the walkable tiles that cannot be reached from the main area of the world,
+     * or hides them if they are shown. The analysis runs in the background on a copy of the world.
+     */
+    public void toggleReachability() {
+        if (reachabilityOverlay.isVisible()) {
+            reachabilityOverlay.hide();
+            return;
+        }
+
+        WorldModel snapshot = model.copy();
+        List<WorldModel> elevations = copyElevations();
+        List<TileType> layerOrder = layerList.stream().map(TileLayer::getType).toList();
+        CompletableFuture.supplyAsync(() -> analyzeReachability(snapshot, elevations, layerOrder), BACKGROUND)
+                .whenComplete((result, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        DebugInfo.setError("Reachability analysis failed: " + error.getMessage());
+                        return;
+                    }
+                    reachabilityOverlay.show(result.unreachable());
+                    DebugInfo.setLastAction(String.format("%d regions, %d unreachable tiles (%d ms)",
+                            result.regions(), result.unreachable().cardinality(), result.nanos() / 1_000_000));
+                }));
+    }
+
+    private static Reachability analyzeReachability(WorldModel snapshot, List<WorldModel> elevations,
+            List<TileType> layerOrder) {
+        long start = System.nanoTime();
+        CollisionMap collision = CollisionRules.build(snapshot, layerOrder, CollisionRules.LEVELS + elevations.size());
+        for (int i = 0; i < elevations.size(); i++) {
+            CollisionRules.applyAll(collision, elevations.get(i), layerOrder, i + 1);
+        }
+        NavGrid grid = new NavGrid(collision);
+        Regions regions = Regions.analyze(grid);
+
+        // A tile is marked if it is unreachable on any level
+        BitSet unreachable = new BitSet(grid.getWidth() * grid.getHeight());
+        for (int level = 0; level < grid.getLevels(); level++) {
+            for (int y = 0; y < grid.getHeight(); y++) {
+                for (int x = 0; x < grid.getWidth(); x++) {
+                    if (regions.isUnreachable(x, y, level)) {
+                        unreachable.set(y * grid.getWidth() + x);
                     }
                 }
             }
-        // convert tileMap to json
-        String json = new Gson().toJson(tileMap);
-        // save json to file
-        FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Save World");
-        fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("JSON Files", "*.json"));
-        java.io.File file = fileChooser.showSaveDialog(this.getScene().getWindow());
-        if (file != null) {
-            try {
-                java.io.FileWriter writer = new java.io.FileWriter(file);
-                writer.write(json);
-                writer.close();
-            } catch (Exception e) {
-                DebugInfo.setError("Failed to save world: " + e.getMessage());
-                e.printStackTrace();
-            }
         }
+        return new Reachability(unreachable, regions.getRegionCount(), System.nanoTime() - start);
+    }
 
-        // save collisionMap to file
-        String collisionJson = new Gson().toJson(collisionMap);
-        FileChooser collisionFileChooser = new FileChooser();
-        collisionFileChooser.setTitle("Save Collision Map");
-        collisionFileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("JSON Files", "*.json"));
-        java.io.File collisionFile = collisionFileChooser.showSaveDialog(this.getScene().getWindow());
-        if (collisionFile != null) {
-            try {
-                java.io.FileWriter writer = new java.io.FileWriter(collisionFile);
-                writer.write(collisionJson);
-                writer.close();
-            } catch (Exception e) {
-                DebugInfo.setError("Failed to save collision map: " + e.getMessage());
-                e.printStackTrace();
+    /**
+     * Gets the model of the elevation on a level, adding elevations up to it if needed.
+     */
+    private WorldModel elevationModel(int level) {
+        while (elevationCanvasList.size() < level) {
+            addElevation();
+        }
+        return elevationCanvasList.get(level - 1).getModel();
+    }
+
+    /**
+     * Replaces the content of every level, adding the elevations the new content has and
+     * emptying the ones it does not.
+     * @param elevations The new elevations by level, levels missing from it are left empty
+     */
+    private void replaceLevels(WorldModel ground, Map<Integer, WorldModel> elevations) {
+        model.copyFrom(ground);
+        int levels = Math.max(elevationCanvasList.size(),
+                elevations.keySet().stream().mapToInt(Integer::intValue).max().orElse(0));
+        for (int level = 1; level <= levels; level++) {
+            WorldModel source = elevations.get(level);
+            if (source != null) {
+                elevationModel(level).copyFrom(source);
+            } else {
+                elevationModel(level).clear();
             }
         }
     }
 
+    /**
+     * Gets the models of every level, the ground first and then the elevations bottom to top.
+     */
+    private List<WorldModel> levelModels() {
+        List<WorldModel> models = new ArrayList<>();
+        models.add(model);
+        for (Elevation elevation : elevationCanvasList) {
+            models.add(elevation.getModel());
+        }
+        return models;
+    }
+
+    /**
+     * Copies the model of every elevation, bottom to top, to read them on another thread.
+     */
+    private List<WorldModel> copyElevations() {
+        return elevationCanvasList.stream().map(elevation -> elevation.getModel().copy()).toList();
+    }
+
+    // ================== UNDO & REDO ==================//
+
+    /**
+     * Reverts the last stroke, fill or import on the active level.
+     */
+    public void undo() {
+        TileEdit edit = activeHistory().undo();
+        if (edit != null) {
+            refresh(edit);
+            DebugInfo.setLastAction("Undid " + edit.getName() + " (" + edit.size() + " tiles)");
+        } else {
+            DebugInfo.setError("NOTHING TO UNDO");
+        }
+    }
+
+    /**
+     * Reapplies the last undone stroke, fill or import on the active level.
+     */
+    public void redo() {
+        TileEdit edit = activeHistory().redo();
+        if (edit != null) {
+            refresh(edit);
+            DebugInfo.setLastAction("Redid " + edit.getName() + " (" + edit.size() + " tiles)");
+        } else {
+            DebugInfo.setError("NOTHING TO REDO");
+        }
+    }
+
+    /**
+     * Repaints only the area each layer of an undone or redone edit covers.
+     */
+    private void refresh(TileEdit edit) {
+        edit.forEachRegion(WORLD_WIDTH, (type, x0, y0, x1, y1) -> {
+            TileLayer layer = findLayer(activeLevel, type);
+            if (layer instanceof AnimatedLayer animated) {
+                animated.recount();
+            }
+            if (layer != null) {
+                chunkRenderer.repaint(layer, x0, y0, x1, y1);
+            }
+        });
+    }
+    
+        // ================== SAVE, LOAD, EXPORT, IMPORT ==================//
+    
+        /**
+         * Exports the world file and the collision map in the background.
+         * The model is copied on the FX thread, everything else runs on the export thread.
+         * @return The running export, to follow its progress or cancel it, or null if nothing is exported
+         */
+        public Task<Void> export() {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Save World");
+            fileChooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter("World Files", "*" + WorldFile.EXTENSION));
+            java.io.File file = fileChooser.showSaveDialog(this.getScene().getWindow());
+
+            FileChooser collisionFileChooser = new FileChooser();
+            collisionFileChooser.setTitle("Save Collision Map");
+            collisionFileChooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("Collision Maps", "*" + CollisionMap.EXTENSION),
+                    new FileChooser.ExtensionFilter("JSON Files", "*.json"));
+            java.io.File collisionFile = collisionFileChooser.showSaveDialog(this.getScene().getWindow());
+
+            if (file == null && collisionFile == null) {
+                return null;
+            }
+
+            List<TileType> layerOrder = layerList.stream().map(TileLayer::getType).toList();
+            ExportTask task = new ExportTask(model.copy(), copyElevations(), layerOrder,
+                    file != null ? file.toPath() : null,
+                    collisionFile != null ? collisionFile.toPath() : null);
+
+            task.setOnSucceeded(event -> DebugInfo.setLastAction("Exported world"));
+            task.setOnCancelled(event -> DebugInfo.setLastAction("Export cancelled"));
+            task.setOnFailed(event ->
+                    DebugInfo.setError("Failed to export world: " + task.getException().getMessage()));
+            BACKGROUND.execute(task);
+            return task;
+        }
+
     public void importfunc() throws IOException {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Import World");
-        fileChooser.getExtensionFilters().add(
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("World Files", "*" + WorldFile.EXTENSION),
                 new FileChooser.ExtensionFilter("JSON Files", "*.json"));
         java.io.File file = fileChooser.showOpenDialog(this.getScene().getWindow());
-        if (file != null) {
+        long start = System.nanoTime();
+        if (file != null && file.getName().endsWith(WorldFile.EXTENSION)) {
+            // Read into new models first, so a rejected file leaves the world as it is
+            WorldModel ground = new WorldModel(WORLD_WIDTH, WORLD_HEIGHT);
+            Map<Integer, WorldModel> elevations = new HashMap<>();
+            WorldFile.read(file.toPath(), ground,
+                    level -> elevations.computeIfAbsent(level, l -> new WorldModel(WORLD_WIDTH, WORLD_HEIGHT)));
+
+            // Every level is replaced, elevations the file does not have are left empty
+            List<Elevation> existing = List.copyOf(elevationCanvasList);
+            history.beginSnapshot("Import");
+            for (Elevation elevation : existing) {
+                elevation.getHistory().beginSnapshot("Import");
+            }
+            try {
+                replaceLevels(ground, elevations);
+            } finally {
+                history.end();
+                for (Elevation elevation : existing) {
+                    elevation.getHistory().end();
+                }
+                foamCanvas.recount();
+                rocksCanvas.recount();
+                chunkRenderer.redraw();
+            }
+            IMPORT.stop(start);
+            DebugInfo.setLastAction("Imported world " + file.getName());
+        } else if (file != null) {
+            // Legacy JSON worlds are replayed through the layers
             String json = new String(java.nio.file.Files.readAllBytes(file.toPath()));
             String[][][] tileMap = new Gson().fromJson(json, String[][][].class);
+            if (tileMap == null || tileMap.length != WORLD_WIDTH || tileMap[0].length != WORLD_HEIGHT) {
+                throw new IOException("World is not " + WORLD_WIDTH + "x" + WORLD_HEIGHT + ": " + file.getName());
+            }
 
             int numberOfCanvases = tileMap[0][0].length;
 
@@ -526,9 +901,9 @@ public final class WorldCanvas extends ScrollPane {
 
             // String[][][] collisionMap
 
-            // PlayerCanvas playerCanvas0 = new PlayerCanvas(WORLD_WIDTH, WORLD_HEIGHT);
-            // PlayerCanvas playerCanvas1 = new PlayerCanvas(WORLD_WIDTH, WORLD_HEIGHT);
-            // PlayerCanvas playerCanvas2 = new PlayerCanvas(WORLD_WIDTH, WORLD_HEIGHT);
+            // PlayerCanvas playerCanvas0 = new PlayerCanvas(model);
+            // PlayerCanvas playerCanvas1 = new PlayerCanvas(model);
+            // PlayerCanvas playerCanvas2 = new PlayerCanvas(model);
 
             // ArrayList<PlayerCanvas> playerCanvases = new ArrayList<>();
 
@@ -543,80 +918,220 @@ public final class WorldCanvas extends ScrollPane {
             // if player wants to move up a z-layer -> check if [x+1][y][z+1] == "walk" and
             // [x][y][z] == "stairs"
 
-            for (int i = 0; i < numberOfCanvases; i++) {
-                for (int x = 0; x < WORLD_WIDTH; x++) {
-                    for (int y = 0; y < WORLD_HEIGHT; y++) {
-                        String tile = tileMap[x][y][i];
-                        if (tile != null) {
-                            switch (tile) {
-                                case "GRASS" -> {
-                                    grassCanvas.drawGrass(x, y, true);
-                                }
-                                case "WATER" -> {
-                                    waterCanvas.drawWater(x, y);
-                                }
-                                case "FOAM" -> {
-                                    foamCanvas.drawFoam(x, y);
-                                }
-                                case "SAND" -> {
-                                    sandCanvas.drawSand(x, y, true);
-                                }
-                                case "ROCKS1" -> {
-                                    rocksCanvas.drawRocks(x, y, 0);
-                                }
-                                case "ROCKS2" -> {
-                                    rocksCanvas.drawRocks(x, y, 1);
-                                }
-                                case "ROCKS3" -> {
-                                     rocksCanvas.drawRocks(x, y, 2);
-                                }
-                                case "ROCKS4" -> {
-                                    rocksCanvas.drawRocks(x, y, 3);
-                                }
-                                case "SHADOW" -> {
-                                    shadowCanvas.drawShadow(x, y);
-                                }
-                                case "WALL" -> {
-                                    wallCanvas.drawWall(x, y, true);
-                                }
-                                case "PLATEAU" -> {
-                                    plateauCanvas.drawPlateau(x, y, true);
-                                }
-                                case "STAIRS" -> {
-                                    stairsCanvas.drawStairs(x, y, true);
-                                }
-                                case "BRIDGE" -> {
-                                    bridgeCanvas.drawBridge(x, y, true);
-                                }
-                                case "BRIDGESHADOW" -> {
-                                    bridgeShadowCanvas.drawBridgeShadow(x, y);
-                                }
-                                case "GRASSFILL" -> {
-                                    grassFillCanvas.drawGrassFill(x, y);
-                                }
-                                case "SANDFILL" -> {
-                                    sandFillCanvas.drawSandFill(x, y);
-                                }
-                                default -> {
-                                }
+            // Bulk-load every layer first, then resolve autotiling and render once
+            history.beginSnapshot("Import");
+            int loaded = 0;
+            try {
+                model.clear();
+                for (int i = 0; i < numberOfCanvases; i++) {
+                    for (int x = 0; x < WORLD_WIDTH; x++) {
+                        for (int y = 0; y < WORLD_HEIGHT; y++) {
+                            String tile = tileMap[x][y][i];
+                            if (tile != null && loadTile(tile, x, y)) {
+                                loaded++;
                             }
                         }
                     }
                 }
+
+                for (TileLayer layer : layerList) {
+                    layer.resolveVariants();
+                }
+            } finally {
+                // Layers loaded directly are saved by the autosave only once marked
+                model.markAllDirty();
+                history.end();
             }
+            foamCanvas.recount();
+            rocksCanvas.recount();
+            chunkRenderer.redraw();
+            IMPORT.stop(start);
+
+            DebugInfo.setLastAction("Imported " + loaded + " tiles from " + file.getName());
         }
     }
 
+    /**
+     * Replaces the ground with a world generated from a seed, as one undoable edit.
+     * Elevations are left as they are.
+     */
+    public void generate(long seed) {
+        long start = System.nanoTime();
+        history.beginSnapshot("Generate");
+        try {
+            new WorldGenerator(seed).generate(layerStack);
+        } finally {
+            history.end();
+        }
+        foamCanvas.recount();
+        rocksCanvas.recount();
+        chunkRenderer.redraw();
+        DebugInfo.setLastAction("Generated world from seed " + seed + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Loads a tile of a legacy JSON world into its layer, without autotiling or repainting.
+     * @return false if the tile name is unknown
+     */
+    private boolean loadTile(String tile, int x, int y) {
+        switch (tile) {
+            case "ROCKS1" -> rocksCanvas.loadTile(x, y, 0);
+            case "ROCKS2" -> rocksCanvas.loadTile(x, y, 1);
+            case "ROCKS3" -> rocksCanvas.loadTile(x, y, 2);
+            case "ROCKS4" -> rocksCanvas.loadTile(x, y, 3);
+            case "GRASS" -> grassCanvas.loadTile(x, y, 0);
+            case "WATER" -> waterCanvas.loadTile(x, y, 0);
+            case "FOAM" -> foamCanvas.loadTile(x, y, 0);
+            case "SAND" -> sandCanvas.loadTile(x, y, 0);
+            case "SHADOW" -> shadowCanvas.loadTile(x, y, 0);
+            case "WALL" -> wallCanvas.loadTile(x, y, 0);
+            case "PLATEAU" -> plateauCanvas.loadTile(x, y, 0);
+            case "STAIRS" -> stairsCanvas.loadTile(x, y, 0);
+            case "BRIDGE" -> bridgeCanvas.loadTile(x, y, 0);
+            case "BRIDGESHADOW" -> bridgeShadowCanvas.loadTile(x, y, 0);
+            case "GRASSFILL" -> grassFillCanvas.loadTile(x, y, 0);
+            case "SANDFILL" -> sandFillCanvas.loadTile(x, y, 0);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Saves the world to its project file, asking for one on the first save.
+     * From then on the project is autosaved in the background, writing only the
+     * chunks that changed.
+     */
     public void save() {
-        // TODO: Implement save
+        if (autosave == null) {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Save Project");
+            fileChooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter("WorldBuilder Projects", "*" + ProjectFile.EXTENSION));
+            java.io.File file = fileChooser.showSaveDialog(this.getScene().getWindow());
+            if (file == null) {
+                return;
+            }
+            try {
+                ProjectFile project = ProjectFile.create(file.toPath(), WORLD_WIDTH, WORLD_HEIGHT);
+                // Everything has to be written to a new file
+                for (WorldModel levelModel : levelModels()) {
+                    levelModel.markAllDirty();
+                }
+                startAutosave(project);
+            } catch (IOException e) {
+                DebugInfo.setError("Failed to create project: " + e.getMessage());
+                return;
+            }
+        }
+        autosave.save();
     }
 
+    /**
+     * Loads a project file, replacing the world and its elevations, and autosaves to it from then on.
+     * Elevations the project does not have are left empty.
+     */
     public void load() {
-        // TODO: Implement load
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Load Project");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("WorldBuilder Projects", "*" + ProjectFile.EXTENSION));
+        java.io.File file = fileChooser.showOpenDialog(this.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        ProjectFile project;
+        WorldModel ground = new WorldModel(WORLD_WIDTH, WORLD_HEIGHT);
+        Map<Integer, WorldModel> elevations = new HashMap<>();
+        try {
+            // Read into new models first, so a rejected file leaves the world and its project as they are
+            project = ProjectFile.open(file.toPath());
+            try {
+                project.read(ground);
+                for (int level = 1; level < project.getLevelCount(); level++) {
+                    WorldModel elevation = new WorldModel(WORLD_WIDTH, WORLD_HEIGHT);
+                    project.read(level, elevation);
+                    elevations.put(level, elevation);
+                }
+            } catch (IOException | RuntimeException e) {
+                project.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            DebugInfo.setError("Failed to load project: " + e.getMessage());
+            return;
+        }
+
+        // Pending changes belong to the previous project
+        closeProject();
+        try {
+            replaceLevels(ground, elevations);
+            // Edits of the previous world do not apply to the loaded one, which matches the file
+            history.clear();
+            for (Elevation elevation : elevationCanvasList) {
+                elevation.getHistory().clear();
+            }
+            for (WorldModel levelModel : levelModels()) {
+                levelModel.takeDirtyChunks();
+            }
+            startAutosave(project);
+        } finally {
+            foamCanvas.recount();
+            rocksCanvas.recount();
+            chunkRenderer.redraw();
+        }
+        DebugInfo.setLastAction("Loaded project " + file.getName());
+    }
+
+    /**
+     * Writes the remaining changes to the open project, if any, and closes it.
+     */
+    public void closeProject() {
+        if (autosave == null) {
+            return;
+        }
+        try {
+            autosave.close();
+        } catch (IOException e) {
+            DebugInfo.setError("Failed to save project: " + e.getMessage());
+        }
+        autosave = null;
+    }
+
+    private void startAutosave(ProjectFile project) {
+        autosave = new ProjectAutosave(project, this::levelModels, Platform::runLater, AUTOSAVE_SECONDS, TimeUnit.SECONDS,
+                new ProjectAutosave.Listener() {
+                    @Override
+                    public void saved(int chunks, long bytes, long nanos) {
+                        AUTOSAVE.record(nanos);
+                        AUTOSAVE_BYTES.add(bytes);
+                        DebugInfo.setCategory("AUTOSAVE", String.format("%d chunks, %d KB in %d ms",
+                                chunks, bytes / 1024, nanos / 1_000_000));
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        DebugInfo.setError("Autosave failed: " + e.getMessage());
+                    }
+                });
     }
 
     // ================== GETTERS ==================//
 
+    /**
+     * Gets the overview of the world, to be placed above the viewport.
+     */
+    public Minimap getMinimap() {
+        return minimap;
+    }
+
+    public WorldModel getModel() {
+        return model;
+    }
+
     public int getCurrentTileX() {
         return currentTileX;
     }
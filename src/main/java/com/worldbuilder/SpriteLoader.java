@@ -1,19 +1,40 @@
 package com.worldbuilder;
 
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
+import com.worldbuilder.metrics.Metrics;
+
 /**
- * SpriteLoader - Centralized class for loading and caching all game sprites and images
- * Ensures all images are properly loaded on time and cached for reuse
+ * SpriteLoader - Centralized class for loading all game sprites and images
+ * Every sheet is decoded once at startup and packed into a single atlas image.
+ * Tiles and animation frames are pre-sliced into {@link SpriteRegion}s of that
+ * atlas, so drawing never slices or copies pixels at run time.
  */
 public class SpriteLoader {
-    // Cache for storing loaded images to avoid reloading
-    private static final Map<String, Image> imageCache = new HashMap<>();
-    
+    private static final int TILE_SIZE = 64;
+
+    // Atlas layout
+    private static final int ATLAS_WIDTH = 2080; // Two rock sheets side by side
+    // Keeps scaled draws from sampling a neighbouring sheet. Sheet sizes are multiples of 8 too,
+    // so every sheet stays aligned and at least one pixel apart in the smallest mip level.
+    private static final int PADDING = 8;
+
+    /**
+     * Number of atlas levels, the full atlas and copies downsampled to 1/2, 1/4 and 1/8.
+     */
+    public static final int MIP_LEVELS = 4;
+
     // Terrain paths
     private static final String WATER_PATH = "/assets/Terrain/Water/Water.png";
     private static final String FOAM_PATH = "/assets/Terrain/Water/Foam/Foam.png";
@@ -22,61 +43,220 @@ public class SpriteLoader {
     private static final String ELEVATION_TILEMAP_PATH = "/assets/Terrain/Ground/Tilemap_Elevation.png";
     private static final String SHADOWS_PATH = "/assets/Terrain/Ground/Shadows.png";
     private static final String BRIDGE_PATH = "/assets/Terrain/Bridge/Bridge_All.png";
-    
+
     /**
-     * Static initializer to preload essential images
+     * The sheets packed into the atlas.
+     * Animated sheets hold their frames side by side, all other sheets are tile grids.
      */
+    public enum Sheet {
+        WATER(WATER_PATH, 1),
+        FOAM(FOAM_PATH, 8),
+        ROCKS_1(ROCKS_PATH_PREFIX + "1.png", 8),
+        ROCKS_2(ROCKS_PATH_PREFIX + "2.png", 8),
+        ROCKS_3(ROCKS_PATH_PREFIX + "3.png", 8),
+        ROCKS_4(ROCKS_PATH_PREFIX + "4.png", 8),
+        GROUND(GROUND_TILEMAP_PATH, 1),
+        ELEVATION(ELEVATION_TILEMAP_PATH, 1),
+        SHADOWS(SHADOWS_PATH, 1),
+        BRIDGE(BRIDGE_PATH, 1);
+
+        private final String path;
+        private final int frameCount;
+
+        Sheet(String path, int frameCount) {
+            this.path = path;
+            this.frameCount = frameCount;
+        }
+
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        /**
+         * Gets the rocks sheet for a rock type (0 - 3).
+         */
+        public static Sheet rocks(int rockType) {
+            return switch (rockType) {
+                case 0 -> ROCKS_1;
+                case 1 -> ROCKS_2;
+                case 2 -> ROCKS_3;
+                case 3 -> ROCKS_4;
+                default -> throw new IllegalArgumentException("Rock type must be between 0 and 3");
+            };
+        }
+    }
+
+    /**
+     * Pre-sliced regions of one sheet.
+     */
+    private record SheetRegions(SpriteRegion sheet, int columns, SpriteRegion[] tiles, SpriteRegion[] frames) {}
+
+    private static final WritableImage atlas;
+    private static final WritableImage[] mipLevels = new WritableImage[MIP_LEVELS];
+    private static final Map<Sheet, SheetRegions> regions = new EnumMap<>(Sheet.class);
+    private static final Map<Sheet, WritableImage[]> frameImages = new EnumMap<>(Sheet.class);
+    private static final long atlasBuildNanos;
+
     static {
-        // Preload essential images
-        getWaterTile();
-        getGroundTileset();
-        getBridgeTileset();
+        long start = System.nanoTime();
+        atlas = buildAtlas();
+        mipLevels[0] = atlas;
+        for (int level = 1; level < MIP_LEVELS; level++) {
+            mipLevels[level] = downsample(mipLevels[level - 1]);
+        }
+        atlasBuildNanos = System.nanoTime() - start;
+        Metrics.timer("sprites.atlas").record(atlasBuildNanos);
     }
-    
+
     /**
      * Private constructor to prevent instantiation
      */
     private SpriteLoader() {
         // This class should not be instantiated
     }
-    
+
+    /**
+     * Decodes every sheet once, packs them into rows of the atlas (tallest first)
+     * and slices the tile and frame regions.
+     */
+    private static WritableImage buildAtlas() {
+        Sheet[] sheets = Sheet.values();
+        Image[] images = new Image[sheets.length];
+        for (Sheet sheet : sheets) {
+            images[sheet.ordinal()] = loadImage(sheet.path);
+        }
+
+        Sheet[] order = sheets.clone();
+        Arrays.sort(order, Comparator.comparingDouble((Sheet sheet) -> images[sheet.ordinal()].getHeight()).reversed());
+
+        // Shelf packing: put each sheet on the first row with room for it, or open a new row
+        int[] positions = new int[sheets.length * 2];
+        List<int[]> shelves = new ArrayList<>(); // { y, height, next free x }
+        int atlasHeight = 0;
+        for (Sheet sheet : order) {
+            Image image = images[sheet.ordinal()];
+            int w = (int) image.getWidth();
+            int h = (int) image.getHeight();
+
+            int[] shelf = null;
+            for (int[] candidate : shelves) {
+                if (h <= candidate[1] && candidate[2] + w <= ATLAS_WIDTH) {
+                    shelf = candidate;
+                    break;
+                }
+            }
+            if (shelf == null) {
+                shelf = new int[] { atlasHeight, h, 0 };
+                shelves.add(shelf);
+                atlasHeight += h + PADDING;
+            }
+
+            positions[sheet.ordinal() * 2] = shelf[2];
+            positions[sheet.ordinal() * 2 + 1] = shelf[0];
+            shelf[2] += w + PADDING;
+        }
+
+        WritableImage result = new WritableImage(ATLAS_WIDTH, atlasHeight - PADDING);
+        PixelWriter writer = result.getPixelWriter();
+        for (Sheet sheet : sheets) {
+            Image image = images[sheet.ordinal()];
+            int w = (int) image.getWidth();
+            int h = (int) image.getHeight();
+            int sx = positions[sheet.ordinal() * 2];
+            int sy = positions[sheet.ordinal() * 2 + 1];
+            writer.setPixels(sx, sy, w, h, image.getPixelReader(), 0, 0);
+            regions.put(sheet, slice(sheet, sx, sy, w, h));
+        }
+        return result;
+    }
+
+    /**
+     * Halves an image by averaging every 2x2 block of premultiplied pixels,
+     * so transparent pixels do not darken the edges of sprites.
+     */
+    private static WritableImage downsample(Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] source = new int[width * height];
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), source, 0, width);
+
+        int halfWidth = Math.max(1, width / 2);
+        int halfHeight = Math.max(1, height / 2);
+        int[] target = new int[halfWidth * halfHeight];
+        for (int y = 0; y < halfHeight; y++) {
+            int row0 = Math.min(2 * y, height - 1) * width;
+            int row1 = Math.min(2 * y + 1, height - 1) * width;
+            for (int x = 0; x < halfWidth; x++) {
+                int x0 = Math.min(2 * x, width - 1);
+                int x1 = Math.min(2 * x + 1, width - 1);
+                int a = source[row0 + x0];
+                int b = source[row0 + x1];
+                int c = source[row1 + x0];
+                int d = source[row1 + x1];
+                int pixel = 0;
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int sum = ((a >>> shift) & 0xFF) + ((b >>> shift) & 0xFF) + ((c >>> shift) & 0xFF) + ((d >>> shift) & 0xFF);
+                    pixel |= ((sum + 2) >> 2) << shift;
+                }
+                target[y * halfWidth + x] = pixel;
+            }
+        }
+
+        WritableImage result = new WritableImage(halfWidth, halfHeight);
+        result.getPixelWriter().setPixels(0, 0, halfWidth, halfHeight, PixelFormat.getIntArgbPreInstance(),
+                target, 0, halfWidth);
+        return result;
+    }
+
+    private static SheetRegions slice(Sheet sheet, int sx, int sy, int w, int h) {
+        int columns = Math.max(1, w / TILE_SIZE);
+        int rows = Math.max(1, h / TILE_SIZE);
+        SpriteRegion[] tiles = new SpriteRegion[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                tiles[row * columns + column] = new SpriteRegion(
+                        sx + column * TILE_SIZE, sy + row * TILE_SIZE,
+                        Math.min(TILE_SIZE, w), Math.min(TILE_SIZE, h));
+            }
+        }
+
+        int frameWidth = w / sheet.frameCount;
+        SpriteRegion[] frames = new SpriteRegion[sheet.frameCount];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new SpriteRegion(sx + i * frameWidth, sy, frameWidth, h);
+        }
+
+        return new SheetRegions(new SpriteRegion(sx, sy, w, h), columns, tiles, frames);
+    }
+
     /**
      * Load an image from the specified path
-     * 
+     *
      * @param path The resource path
-     * @return The loaded Image
-     * @throws RuntimeException if the image cannot be loaded
+     * @return The loaded Image, or a fallback image if it cannot be loaded
      */
     private static Image loadImage(String path) {
-        try {
-            if (imageCache.containsKey(path)) {
-                return imageCache.get(path);
+        try (InputStream is = SpriteLoader.class.getResourceAsStream(path)) {
+            if (is == null) {
+                System.err.println("Failed to load image: Resource not found at " + path);
+                return createFallbackImage();
             }
-            
-            try (InputStream is = SpriteLoader.class.getResourceAsStream(path)) {
-                if (is == null) {
-                    System.err.println("Failed to load image: Resource not found at " + path);
-                    return createFallbackImage();
-                }
-                
-                Image image = new Image(is);
-                if (image.isError()) {
-                    System.err.println("Error loading image: " + image.getException().getMessage());
-                    return createFallbackImage();
-                }
-                
-                imageCache.put(path, image);
-                return image;
+
+            Image image = new Image(is);
+            if (image.isError()) {
+                System.err.println("Error loading image: " + image.getException().getMessage());
+                return createFallbackImage();
             }
+            return image;
         } catch (Exception e) {
             System.err.println("Error loading image from " + path + ": " + e.getMessage());
             return createFallbackImage();
         }
     }
-    
+
     /**
      * Create a fallback image for when a resource cannot be loaded
-     * 
+     *
      * @return A simple fallback image
      */
     private static Image createFallbackImage() {
@@ -93,89 +273,69 @@ public class SpriteLoader {
         }
         return fallbackImage;
     }
-    
-    // Methods to access individual sprites
-    
+
+    // Methods to access the atlas
+
     /**
-     * Get the water tile image
+     * Get the atlas image holding every sheet
      */
-    public static Image getWaterTile() {
-        return loadImage(WATER_PATH);
+    public static Image getAtlas() {
+        return atlas;
     }
-    
+
     /**
-     * Get the foam spritesheet
+     * Get a level of the atlas, downsampled by 2^level. Regions of the full atlas
+     * map to the same place in every level once their coordinates are divided by 2^level.
      */
-    public static Image getFoamSpritesheet() {
-        return loadImage(FOAM_PATH);
+    public static Image getAtlas(int level) {
+        return mipLevels[level];
     }
-    
+
     /**
-     * Get a specific rocks image by index (1-4)
+     * Get the region of a whole sheet
      */
-    public static Image getRocksImage(int index) {
-        if (index < 1 || index > 4) {
-            throw new IllegalArgumentException("Rocks index must be between 1 and 4");
-        }
-        return loadImage(ROCKS_PATH_PREFIX + index + ".png");
+    public static SpriteRegion getSheet(Sheet sheet) {
+        return regions.get(sheet).sheet();
     }
-    
+
     /**
-     * Get all rocks images as an array
+     * Get a 64x64 tile of a tile sheet by its column and row.
+     * Falls back to the first tile if the sheet is smaller than expected.
      */
-    public static Image[] getAllRocksImages() {
-        Image[] rocks = new Image[4];
-        for (int i = 0; i < 4; i++) {
-            rocks[i] = getRocksImage(i + 1);
+    public static SpriteRegion getTile(Sheet sheet, int column, int row) {
+        SheetRegions sheetRegions = regions.get(sheet);
+        int index = row * sheetRegions.columns() + column;
+        if (column >= sheetRegions.columns() || index >= sheetRegions.tiles().length) {
+            return sheetRegions.tiles()[0];
         }
-        return rocks;
-    }
-    
-    /**
-     * Get the ground tileset
-     */
-    public static Image getGroundTileset() {
-        return loadImage(GROUND_TILEMAP_PATH);
-    }
-    
-    /**
-     * Get the elevation tileset for plateaus and stairs
-     */
-    public static Image getElevationTileset() {
-        return loadImage(ELEVATION_TILEMAP_PATH);
+        return sheetRegions.tiles()[index];
     }
-    
+
     /**
-     * Get the shadows image
+     * Get a frame of an animated sheet
      */
-    public static Image getShadowsImage() {
-        return loadImage(SHADOWS_PATH);
+    public static SpriteRegion getFrame(Sheet sheet, int frameIndex) {
+        return regions.get(sheet).frames()[frameIndex];
     }
-    
+
     /**
-     * Get the bridge tileset
+     * Get a frame of an animated sheet as a standalone image, for use in controls.
+     * Frames are copied out of the atlas once and cached.
      */
-    public static Image getBridgeTileset() {
-        return loadImage(BRIDGE_PATH);
+    public static Image getFrameImage(Sheet sheet, int frameIndex) {
+        WritableImage[] images = frameImages.computeIfAbsent(sheet, s -> new WritableImage[s.frameCount]);
+        if (images[frameIndex] == null) {
+            SpriteRegion frame = getFrame(sheet, frameIndex);
+            PixelReader reader = atlas.getPixelReader();
+            images[frameIndex] = new WritableImage(reader, frame.x(), frame.y(), frame.width(), frame.height());
+        }
+        return images[frameIndex];
     }
-    
+
     /**
-     * Extract a single frame from a spritesheet
-     * 
-     * @param spritesheet The spritesheet image
-     * @param frameIndex The index of the frame to extract
-     * @param frameCount The total number of frames in the spritesheet
-     * @return The extracted frame as a WritableImage
+     * Time it took to decode the sheets and build the atlas, in nanoseconds
      */
-    public static WritableImage extractFrame(Image spritesheet, int frameIndex, int frameCount) {
-        int frameWidth = (int)spritesheet.getWidth() / frameCount;
-        int frameHeight = (int)spritesheet.getHeight();
-        return new WritableImage(
-            spritesheet.getPixelReader(), 
-            frameIndex * frameWidth, 
-            0, 
-            frameWidth, 
-            frameHeight
-        );
+    public static long getAtlasBuildNanos() {
+        return atlasBuildNanos;
     }
-} 
\ No newline at end of file
+}
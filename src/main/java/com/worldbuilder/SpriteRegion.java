@@ -0,0 +1,22 @@
+package com.worldbuilder;
+
+/**
+ * SpriteRegion - A rectangle of the sprite atlas holding one tile, frame or sheet.
+ * Regions are sliced once when the atlas is built and shared by every layer.
+ */
+public record SpriteRegion(int x, int y, int width, int height) {
+
+    /**
+     * Draws the region at its natural size.
+     */
+    public void draw(SpriteSurface surface, double dx, double dy) {
+        surface.drawSprite(this, dx, dy, width, height);
+    }
+
+    /**
+     * Draws the region scaled to the given size.
+     */
+    public void draw(SpriteSurface surface, double dx, double dy, double dw, double dh) {
+        surface.drawSprite(this, dx, dy, dw, dh);
+    }
+}
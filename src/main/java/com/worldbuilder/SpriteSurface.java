@@ -0,0 +1,45 @@
+package com.worldbuilder;
+
+import com.worldbuilder.metrics.Counter;
+import com.worldbuilder.metrics.Metrics;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+/**
+ * SpriteSurface - Something atlas regions can be drawn onto.
+ * Layers only draw through this interface, so the same layer code renders into
+ * JavaFX canvases in the editor and into plain images in the headless renderer.
+ */
+@FunctionalInterface
+public interface SpriteSurface {
+
+    /**
+     * Draws a region of the sprite atlas scaled to the given rectangle.
+     */
+    void drawSprite(SpriteRegion region, double x, double y, double width, double height);
+
+    /**
+     * Creates a surface drawing into a JavaFX graphics context, honouring its current transform and clip.
+     * Every sprite drawn is counted in the sprites.drawn metric.
+     */
+    static SpriteSurface of(GraphicsContext gc) {
+        return of(gc, 0);
+    }
+
+    /**
+     * Creates a surface drawing from a downsampled level of the atlas, for contexts scaled
+     * down by 2^level. Coordinates are still those of the full atlas and the unscaled world.
+     */
+    static SpriteSurface of(GraphicsContext gc, int mipLevel) {
+        Counter drawn = Metrics.counter("sprites.drawn");
+        Image atlas = SpriteLoader.getAtlas(mipLevel);
+        double scale = 1.0 / (1 << mipLevel);
+        return (region, x, y, width, height) -> {
+            drawn.increment();
+            gc.drawImage(atlas,
+                    region.x() * scale, region.y() * scale, region.width() * scale, region.height() * scale,
+                    x, y, width, height);
+        };
+    }
+}
@@ -2,6 +2,9 @@ package com.worldbuilder.debug;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -12,16 +15,49 @@ import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.TextAlignment;
 
+/**
+ * DebugInfo - On-screen debug overlay with categories, the last action and errors.
+ * Messages may be posted at any rate from any thread. Changes are collected and
+ * applied to the labels in at most one FX update per pulse, and messages expire
+ * through a single shared scheduler instead of a thread per message.
+ */
 public class DebugInfo extends VBox {
+    private static final long LAST_ACTION_DURATION_MS = 5000;
+    private static final long ERROR_DURATION_MS = 2000;
+
+    private static final ScheduledThreadPoolExecutor scheduler;
+    private static final Object lock = new Object();
+
     private static AnchorPane container;
     private static final Label debugLabel;
     private static final Label lastAction;
     private static final Label errorLabel;
     private static final Map<String, String> categories = new LinkedHashMap<>();
     private static String separator = "\n";
-    private static boolean enabled = true;
+    private static volatile boolean enabled = true;
+
+    // Pending label state, guarded by lock and applied by flush()
+    private static String pendingLastAction = "";
+    private static String pendingError = "";
+    private static boolean categoriesDirty;
+    private static boolean flushScheduled;
+
+    private static ScheduledFuture<?> lastActionExpiry;
+    private static ScheduledFuture<?> errorExpiry;
+
+    // Bumped per message, so an expiry that already started cannot clear a newer one
+    private static int lastActionVersion;
+    private static int errorVersion;
 
     static {
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "DebugInfo");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Expiries are cancelled on every new message, do not keep them queued
+        scheduler.setRemoveOnCancelPolicy(true);
+
         debugLabel = new Label("READY");
         lastAction = new Label("");
         errorLabel = new Label("");
@@ -108,42 +144,90 @@ public class DebugInfo extends VBox {
     public static void setCategory(String category, String value) {
         if (!enabled)
             return;
-        categories.put(category, category + ": " + value);
-        updateDisplay();
+        synchronized (lock) {
+            String line = category + ": " + value;
+            if (!line.equals(categories.put(category, line))) {
+                categoriesDirty = true;
+                requestFlush();
+            }
+        }
     }
 
     public static void updateSelectedLayer(String message) {
         if (!enabled)
             return;
-        categories.put("LOG", message);
-        updateDisplay();
+        synchronized (lock) {
+            categories.put("LOG", message);
+            categoriesDirty = true;
+            requestFlush();
+        }
     }
 
     private static void updateDisplay() {
-        if (!enabled) {
-            Platform.runLater(() -> debugLabel.setText(""));
-            return;
+        synchronized (lock) {
+            categoriesDirty = true;
+            requestFlush();
         }
-        final String text = String.join(separator, categories.values());
-        Platform.runLater(() -> debugLabel.setText(text));
+    }
+
+    /**
+     * Schedules a flush on the FX thread unless one is already pending.
+     * Must be called while holding the lock.
+     */
+    private static void requestFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Platform.runLater(DebugInfo::flush);
+        }
+    }
+
+    /**
+     * Applies all pending changes to the labels. Runs on the FX thread.
+     */
+    private static void flush() {
+        String categoryText = null;
+        String actionText;
+        String errorText;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (categoriesDirty) {
+                categoryText = enabled ? String.join(separator, categories.values()) : "";
+                categoriesDirty = false;
+            }
+            actionText = pendingLastAction;
+            errorText = pendingError;
+        }
+
+        if (categoryText != null) {
+            debugLabel.setText(categoryText);
+        }
+        lastAction.setText(actionText);
+        errorLabel.setText(errorText);
     }
 
     public static void setSeparator(String newSeparator) {
-        separator = newSeparator;
+        synchronized (lock) {
+            separator = newSeparator;
+        }
         updateDisplay();
     }
 
     public static void setEnabled(boolean isEnabled) {
         enabled = isEnabled;
+        if (!enabled) {
+            synchronized (lock) {
+                cancel(lastActionExpiry);
+                cancel(errorExpiry);
+                pendingLastAction = "";
+                pendingError = "";
+                categoriesDirty = true;
+                requestFlush();
+            }
+        }
         Platform.runLater(() -> {
             debugLabel.setVisible(enabled);
             lastAction.setVisible(enabled);
             errorLabel.setVisible(enabled);
-            if (!enabled) {
-                debugLabel.setText("");
-                lastAction.setText("");
-                errorLabel.setText("");
-            }
         });
     }
 
@@ -154,49 +238,60 @@ public class DebugInfo extends VBox {
     public static void setLastAction(String action) {
         if (!enabled)
             return;
-        Platform.runLater(() -> {
-            lastAction.setText(action);
-            clearError();
-        try {
-            new Thread(() -> {
-                try {
-                    Thread.sleep(5000);
-                    Platform.runLater(() -> lastAction.setText(""));
-                } catch (InterruptedException e) {
-                    // Ignore interruption
+        synchronized (lock) {
+            pendingLastAction = action;
+            int version = ++lastActionVersion;
+            cancel(lastActionExpiry);
+            lastActionExpiry = scheduler.schedule(() -> {
+                synchronized (lock) {
+                    if (version == lastActionVersion) {
+                        pendingLastAction = "";
+                        requestFlush();
+                    }
                 }
-            }).start();
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
+            }, LAST_ACTION_DURATION_MS, TimeUnit.MILLISECONDS);
+            clearError();
         }
-        });
     }
 
     public static void setError(String error) {
         if (!enabled)
             return;
-        Platform.runLater(() -> errorLabel.setText(error));
-        // Schedule error to be cleared after 3 seconds
-        try {
-            new Thread(() -> {
-                try {
-                    Thread.sleep(2000);
-                    Platform.runLater(() -> clearError());
-                } catch (InterruptedException e) {
-                    // Ignore interruption
+        synchronized (lock) {
+            pendingError = error;
+            int version = ++errorVersion;
+            cancel(errorExpiry);
+            errorExpiry = scheduler.schedule(() -> {
+                synchronized (lock) {
+                    if (version == errorVersion) {
+                        pendingError = "";
+                        requestFlush();
+                    }
                 }
-            }).start();
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
+            }, ERROR_DURATION_MS, TimeUnit.MILLISECONDS);
+            requestFlush();
         }
     }
 
     public static void clearError() {
-        Platform.runLater(() -> errorLabel.setText(""));
+        synchronized (lock) {
+            pendingError = "";
+            errorVersion++;
+            cancel(errorExpiry);
+            requestFlush();
+        }
     }
 
     public static void clearCategories() {
-        categories.clear();
+        synchronized (lock) {
+            categories.clear();
+        }
         updateDisplay();
     }
-}
\ No newline at end of file
+
+    private static void cancel(ScheduledFuture<?> expiry) {
+        if (expiry != null) {
+            expiry.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.worldbuilder.debug;
+
+import com.worldbuilder.metrics.Histogram;
+import com.worldbuilder.metrics.MetricsInterval;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.util.Duration;
+
+/**
+ * MetricsOverlay - Shows what the metrics recorded over the last second.
+ * It only samples the metrics while shown, recording goes on either way.
+ */
+public final class MetricsOverlay extends Label {
+    private final MetricsInterval interval = new MetricsInterval();
+    private final Timeline refresh = new Timeline(new KeyFrame(Duration.seconds(1), event -> update()));
+
+    public MetricsOverlay() {
+        setStyle("-fx-background-color: rgba(0, 0, 0, 0.6); -fx-text-fill: white; -fx-font-family: monospace;");
+        setPadding(new Insets(8));
+        setMouseTransparent(true);
+        setVisible(false);
+        refresh.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    public void toggle() {
+        if (isVisible()) {
+            refresh.stop();
+            setVisible(false);
+        } else {
+            // Start a fresh interval so the first update covers one second
+            interval.next();
+            setText("METRICS");
+            setVisible(true);
+            refresh.play();
+        }
+    }
+
+    private void update() {
+        StringBuilder text = new StringBuilder("METRICS");
+        for (MetricsInterval.Entry entry : interval.next()) {
+            text.append('\n');
+            Histogram.Snapshot s = entry.snapshot();
+            if (s == null) {
+                text.append(String.format("%-16s %,d/s", entry.metric().getName(), Math.round(entry.count() / interval.getSeconds())));
+            } else {
+                Histogram histogram = (Histogram) entry.metric();
+                text.append(String.format("%-16s n=%-5d p50 %s  p99 %s  max %s", histogram.getName(), s.count(),
+                        histogram.format(s.percentile(0.5)), histogram.format(s.percentile(0.99)),
+                        histogram.format(s.max())));
+            }
+        }
+        setText(text.toString());
+    }
+}
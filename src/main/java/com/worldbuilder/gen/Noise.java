@@ -0,0 +1,79 @@
+package com.worldbuilder.gen;
+
+/**
+ * Noise - Seeded fractal value noise.
+ * The value of every lattice point is hashed from the seed and its coordinates,
+ * so any point can be sampled on its own, in any order and on any thread, and
+ * the same seed always gives the same field.
+ */
+final class Noise {
+    private final long seed;
+    private final double scale;
+    private final int octaves;
+
+    /**
+     * @param scale Size of the largest features in tiles
+     * @param octaves Number of layers of detail, each half the size and weight of the one before
+     */
+    Noise(long seed, double scale, int octaves) {
+        this.seed = seed;
+        this.scale = scale;
+        this.octaves = octaves;
+    }
+
+    /**
+     * Samples the noise at a tile.
+     * @return A value in [0, 1), around 0.5 on average
+     */
+    double sample(int x, int y) {
+        double frequency = 1 / scale;
+        double amplitude = 1;
+        double sum = 0;
+        double weight = 0;
+        for (int octave = 0; octave < octaves; octave++) {
+            // Every octave is offset so their lattices do not line up
+            sum += amplitude * value(x * frequency + octave * 17.3, y * frequency + octave * 31.7, seed + octave);
+            weight += amplitude;
+            frequency *= 2;
+            amplitude *= 0.5;
+        }
+        return sum / weight;
+    }
+
+    private static double value(double x, double y, long seed) {
+        int x0 = (int) Math.floor(x);
+        int y0 = (int) Math.floor(y);
+        double fx = smooth(x - x0);
+        double fy = smooth(y - y0);
+        double top = lerp(lattice(x0, y0, seed), lattice(x0 + 1, y0, seed), fx);
+        double bottom = lerp(lattice(x0, y0 + 1, seed), lattice(x0 + 1, y0 + 1, seed), fx);
+        return lerp(top, bottom, fy);
+    }
+
+    /**
+     * Hashes a lattice point to a value in [0, 1).
+     */
+    private static double lattice(int x, int y, long seed) {
+        long h = seed * 0x9E3779B97F4A7C15L + x * 0xC2B2AE3D27D4EB4FL + y * 0x165667B19E3779F9L;
+        // Finalizer of SplitMix64
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Hashes a tile to a value in [0, 1), for decisions that should look random but repeat with the seed.
+     */
+    static double hash(int x, int y, long seed) {
+        return lattice(x, y, seed);
+    }
+
+    private static double smooth(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+}
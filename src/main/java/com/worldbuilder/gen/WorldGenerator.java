@@ -0,0 +1,187 @@
+package com.worldbuilder.gen;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.worldbuilder.TileType;
+import com.worldbuilder.Canvas.LayerStack;
+import com.worldbuilder.Canvas.TileLayer;
+import com.worldbuilder.metrics.Metrics;
+import com.worldbuilder.metrics.Timer;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * WorldGenerator - Generates an island world from a seed.
+ * A height field decides between water, sand, grass and plateaus, and a moisture
+ * field leaves dry land as sand. Plateaus get a wall below their bottom edge with
+ * stairs breaking through it here and there, and shore tiles get foam.
+ *
+ * Every tile only depends on the seed and its position, so the world is computed
+ * in bands of rows on the fork-join pool, written straight into the layer arrays
+ * and autotiled in one more parallel pass. The same seed always gives the same world.
+ */
+public final class WorldGenerator {
+    private static final Timer GENERATE = Metrics.timer("generate");
+
+    // Rows per task, small enough to balance the work across cores
+    private static final int BAND_ROWS = 32;
+
+    // Size of the largest hills in tiles, smaller worlds use smaller ones
+    private static final double HILL_SIZE = 96;
+    private static final double MOISTURE_SIZE = 160;
+
+    private static final double SEA_LEVEL = 0.45;
+    private static final double BEACH = 0.03;
+    private static final double HIGHLAND = 0.64;
+    private static final double DRY = 0.38;
+    private static final double STAIRS_CHANCE = 0.12;
+    private static final int STAIRS_WIDTH = 3;
+
+    private final long seed;
+
+    public WorldGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Replaces the content of the model behind the layers with a generated world.
+     * Writes the layer arrays directly, callers record the change with a snapshot,
+     * recount the animated layers and redraw.
+     */
+    public void generate(LayerStack layers) {
+        long start = System.nanoTime();
+        WorldModel model = layers.getModel();
+        model.clear();
+
+        short[] water = model.getLayer(TileType.WATER);
+        short[] sand = model.getLayer(TileType.SAND);
+        short[] grass = model.getLayer(TileType.GRASS);
+        short[] plateau = model.getLayer(TileType.PLATEAU);
+        short[] foam = model.getLayer(TileType.FOAM);
+        short[] wall = model.getLayer(TileType.WALL);
+        short[] stairs = model.getLayer(TileType.STAIRS);
+        int width = model.getWidth();
+        int rows = model.getHeight();
+        short tile = WorldModel.pack(0, 0);
+        double size = Math.max(width, rows);
+        Noise height = new Noise(seed, Math.min(HILL_SIZE, size / 4), 6);
+        Noise moisture = new Noise(seed ^ 0x5DEECE66DL, Math.min(MOISTURE_SIZE, size / 2), 3);
+
+        // The terrain of a tile only depends on the fields at that tile
+        forEachBand(rows, (y0, y1) -> {
+            for (int y = y0; y < y1; y++) {
+                for (int x = 0, i = y * width; x < width; x++, i++) {
+                    water[i] = tile;
+                    double h = elevation(height, x, y, width, rows);
+                    if (h <= SEA_LEVEL) {
+                        continue;
+                    }
+                    sand[i] = tile;
+                    if (h > SEA_LEVEL + BEACH && moisture.sample(x, y) > DRY) {
+                        grass[i] = tile;
+                    }
+                    if (h > HIGHLAND) {
+                        plateau[i] = tile;
+                    }
+                }
+            }
+        });
+
+        // Shores and cliffs look at the neighbours, so they wait for all of the terrain
+        forEachBand(rows, (y0, y1) -> {
+            for (int y = y0; y < y1; y++) {
+                for (int x = 0, i = y * width; x < width; x++, i++) {
+                    if (sand[i] == WorldModel.EMPTY) {
+                        continue;
+                    }
+                    if (isShore(sand, width, rows, x, y)) {
+                        foam[i] = tile;
+                    }
+                    if (y > 0 && plateau[i - width] != WorldModel.EMPTY && plateau[i] == WorldModel.EMPTY) {
+                        boolean below = y + 1 < rows && sand[i + width] != WorldModel.EMPTY
+                                && plateau[i + width] == WorldModel.EMPTY;
+                        if (below && Noise.hash(x / STAIRS_WIDTH, y, seed) < STAIRS_CHANCE) {
+                            stairs[i] = tile;
+                        } else {
+                            wall[i] = tile;
+                        }
+                    }
+                }
+            }
+        });
+
+        // Variants only depend on which neighbours are occupied, which no longer changes
+        forEachBand(rows, (y0, y1) -> {
+            for (TileLayer layer : layers.getLayers()) {
+                layer.resolveVariants(y0, y1);
+            }
+        });
+
+        model.markAllDirty();
+        GENERATE.stop(start);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Height of a tile, pulled down towards the border so the world is an island.
+     */
+    private static double elevation(Noise height, int x, int y, int width, int rows) {
+        double dx = 2.0 * x / width - 1;
+        double dy = 2.0 * y / rows - 1;
+        double edge = Math.max(Math.abs(dx), Math.abs(dy));
+        return height.sample(x, y) - 0.35 * edge * edge * edge * edge;
+    }
+
+    /**
+     * Checks if a land tile has water next to it.
+     */
+    private static boolean isShore(short[] land, int width, int rows, int x, int y) {
+        int i = y * width + x;
+        return (x > 0 && land[i - 1] == WorldModel.EMPTY)
+                || (x + 1 < width && land[i + 1] == WorldModel.EMPTY)
+                || (y > 0 && land[i - width] == WorldModel.EMPTY)
+                || (y + 1 < rows && land[i + width] == WorldModel.EMPTY);
+    }
+
+    private interface BandTask {
+        /**
+         * Processes rows y0 (inclusive) to y1 (exclusive).
+         */
+        void run(int y0, int y1);
+    }
+
+    private static void forEachBand(int rows, BandTask task) {
+        ForkJoinPool.commonPool().invoke(new Band(task, 0, rows));
+    }
+
+    /**
+     * Splits a range of rows in halves until it is one band.
+     */
+    private static final class Band extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Bands are never serialized, the task is only shared within one generation
+        private final transient BandTask task;
+        private final int y0;
+        private final int y1;
+
+        Band(BandTask task, int y0, int y1) {
+            this.task = task;
+            this.y0 = y0;
+            this.y1 = y1;
+        }
+
+        @Override
+        protected void compute() {
+            if (y1 - y0 <= BAND_ROWS) {
+                task.run(y0, y1);
+                return;
+            }
+            int middle = (y0 + y1) >>> 1;
+            invokeAll(new Band(task, y0, middle), new Band(task, middle, y1));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.worldbuilder.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * CollisionMap - Collision flags of every tile on every level, for the game.
+ *
+ * Layout (big endian):
+ * <pre>
+ * header   magic "WBCM", u16 version, u16 level count, i32 width, i32 height
+ * flags    one byte per tile, level by level, row by row within a level
+ * </pre>
+ * Only depends on the JDK, so the game can load the map with this class as is
+ * and look up the flags of a tile in constant time.
+ */
+public final class CollisionMap {
+    public static final String EXTENSION = ".wbcm";
+
+    public static final int WALKABLE = 1;
+    public static final int WATER = 1 << 1;
+    public static final int WALL = 1 << 2;
+    public static final int STAIRS_UP = 1 << 3;
+    public static final int BRIDGE = 1 << 4;
+
+    private static final int MAGIC = 0x5742434D; // "WBCM"
+    private static final int VERSION = 1;
+
+    private final int width;
+    private final int height;
+    private final int levels;
+    private final byte[] flags;
+
+    /**
+     * Creates a map without any flags set.
+     */
+    public CollisionMap(int width, int height, int levels) {
+        if (width <= 0 || height <= 0 || levels <= 0) {
+            throw new IllegalArgumentException("Invalid collision map size " + width + "x" + height + "x" + levels);
+        }
+        this.width = width;
+        this.height = height;
+        this.levels = levels;
+        this.flags = new byte[Math.multiplyExact(Math.multiplyExact(width, height), levels)];
+    }
+
+    /**
+     * Gets the flags of a tile, 0 outside the map.
+     */
+    public int getFlags(int x, int y, int level) {
+        if (x < 0 || y < 0 || level < 0 || x >= width || y >= height || level >= levels) {
+            return 0;
+        }
+        return flags[(level * height + y) * width + x] & 0xFF;
+    }
+
+    /**
+     * Checks if a tile has all the given flags.
+     */
+    public boolean has(int x, int y, int level, int flag) {
+        return (getFlags(x, y, level) & flag) == flag;
+    }
+
+    public boolean isWalkable(int x, int y, int level) {
+        return has(x, y, level, WALKABLE);
+    }
+
+    public void setFlags(int x, int y, int level, int value) {
+        flags[(level * height + y) * width + x] = (byte) value;
+    }
+
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(levels);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.write(flags);
+        }
+    }
+
+    /**
+     * Reads a collision map written by {@link #write}.
+     *
+     * @throws IOException if the file is not a collision map
+     */
+    public static CollisionMap read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a collision map: " + path.getFileName());
+            }
+            int version = in.readUnsignedShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported collision map version " + version);
+            }
+            int levels = in.readUnsignedShort();
+            int width = in.readInt();
+            int height = in.readInt();
+
+            CollisionMap map;
+            try {
+                map = new CollisionMap(width, height, levels);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                throw new IOException("Invalid collision map size " + width + "x" + height + "x" + levels, e);
+            }
+            in.readFully(map.flags);
+            return map;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+}
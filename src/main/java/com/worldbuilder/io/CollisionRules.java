@@ -0,0 +1,80 @@
+package com.worldbuilder.io;
+
+import java.util.List;
+
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * CollisionRules - How the tiles of the editor turn into collision flags.
+ * Level 0 is the ground, level 1 the plateaus and bridges above it. Layers are
+ * applied bottom to top, so a tile takes the flags of the topmost layer that
+ * sets its level, and a plateau removes the ground below it.
+ * An elevation stands on the plateaus of the level below it, so its tiles are
+ * applied the same way starting from a higher base level.
+ */
+public final class CollisionRules {
+    public static final int LEVELS = 2;
+
+    private CollisionRules() {
+        // This class should not be instantiated
+    }
+
+    /**
+     * Applies a tile of a layer to the collision map.
+     */
+    public static void apply(CollisionMap map, TileType type, int x, int y) {
+        apply(map, type, x, y, 0);
+    }
+
+    /**
+     * Applies a tile of a layer standing on the given level to the collision map.
+     * @param base The level of the ground the tile stands on, 0 for the world and the z-index for an elevation
+     */
+    public static void apply(CollisionMap map, TileType type, int x, int y, int base) {
+        switch (type) {
+            case GRASS, SAND -> map.setFlags(x, y, base, CollisionMap.WALKABLE);
+            case WATER -> map.setFlags(x, y, base, CollisionMap.WATER);
+            case WALL -> map.setFlags(x, y, base, CollisionMap.WALL);
+            case STAIRS -> map.setFlags(x, y, base, CollisionMap.STAIRS_UP | CollisionMap.WALKABLE);
+            case PLATEAU -> {
+                map.setFlags(x, y, base + 1, CollisionMap.WALKABLE);
+                map.setFlags(x, y, base, 0);
+            }
+            case BRIDGE -> map.setFlags(x, y, base + 1, CollisionMap.BRIDGE | CollisionMap.WALKABLE);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Builds the collision map of a world.
+     * @param layerOrder The layers from bottom to top
+     * @param levels Number of levels in the map, at least {@link #LEVELS}
+     */
+    public static CollisionMap build(WorldModel model, List<TileType> layerOrder, int levels) {
+        CollisionMap map = new CollisionMap(model.getWidth(), model.getHeight(), Math.max(LEVELS, levels));
+        applyAll(map, model, layerOrder, 0);
+        return map;
+    }
+
+    /**
+     * Applies every tile of a world, or of an elevation, to the collision map.
+     * @param layerOrder The layers from bottom to top, layers the model does not have are skipped
+     * @param base The level the tiles stand on, the map needs at least base + 2 levels
+     */
+    public static void applyAll(CollisionMap map, WorldModel model, List<TileType> layerOrder, int base) {
+        int width = model.getWidth();
+        for (TileType type : layerOrder) {
+            if (!model.hasLayer(type)) {
+                continue;
+            }
+            short[] cells = model.getLayer(type);
+            for (int index = 0; index < cells.length; index++) {
+                if (cells[index] != WorldModel.EMPTY) {
+                    apply(map, type, index % width, index / width, base);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.worldbuilder.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * ProjectAutosave - Keeps a project file up to date with the models of a world's levels
+ * in the background. At a fixed interval the chunks changed in the models are copied
+ * out on the thread that edits them, which only touches what changed, and written to the file on a
+ * separate thread, so the editing thread never waits for the disk.
+ */
+public final class ProjectAutosave implements Closeable {
+    private final ProjectFile file;
+    private final Supplier<List<WorldModel>> levels;
+    private final Executor modelThread;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService writer;
+    private final Listener listener;
+    private boolean closed;
+
+    /**
+     * Notified on the writer thread after each save.
+     */
+    public interface Listener {
+        void saved(int chunks, long bytes, long nanos);
+
+        void failed(Exception e);
+    }
+
+    /**
+     * Starts saving the levels to the file.
+     * @param levels Lists the models of the ground and each elevation, bottom to top;
+     *               called on the thread that edits them
+     * @param modelThread Runs tasks on the thread that edits the models (e.g. Platform::runLater)
+     * @param interval Time between autosaves
+     */
+    public ProjectAutosave(ProjectFile file, Supplier<List<WorldModel>> levels, Executor modelThread, long interval,
+            TimeUnit unit, Listener listener) {
+        WorldModel ground = levels.get().get(0);
+        if (file.getWidth() != ground.getWidth() || file.getHeight() != ground.getHeight()) {
+            throw new IllegalArgumentException("Project and world sizes differ");
+        }
+        this.file = file;
+        this.levels = levels;
+        this.modelThread = modelThread;
+        this.listener = listener;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> thread(runnable, "ProjectAutosave"));
+        this.writer = Executors.newSingleThreadExecutor(runnable -> thread(runnable, "ProjectWriter"));
+        scheduler.scheduleWithFixedDelay(() -> modelThread.execute(this::save), interval, interval, unit);
+    }
+
+    private static Thread thread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Copies the changed chunks of every level and queues them for writing.
+     * Chunks that fail to be written are marked as changed again, so the next save retries them.
+     * Must be called on the thread that edits the models.
+     * @return Completes once the chunks are on disk
+     */
+    public Future<?> save() {
+        if (closed) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<WorldModel> models = levels.get();
+        List<ProjectFile.Changes> changes = new ArrayList<>();
+        for (int level = 0; level < models.size(); level++) {
+            ProjectFile.Changes levelChanges = ProjectFile.collect(models.get(level), level);
+            if (!levelChanges.isEmpty()) {
+                changes.add(levelChanges);
+            }
+        }
+        if (changes.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return writer.submit(() -> {
+            long start = System.nanoTime();
+            int written = 0;
+            try {
+                int chunks = 0;
+                long bytes = 0;
+                for (ProjectFile.Changes levelChanges : changes) {
+                    file.write(levelChanges);
+                    written++;
+                    chunks += levelChanges.chunks().length;
+                    bytes += levelChanges.getBytes();
+                }
+                listener.saved(chunks, bytes, System.nanoTime() - start);
+            } catch (IOException | RuntimeException e) {
+                restore(changes.subList(written, changes.size()));
+                listener.failed(e);
+            }
+        });
+    }
+
+    /**
+     * Marks chunks that were not written as changed again, on the thread that edits the models.
+     */
+    private void restore(List<ProjectFile.Changes> unwritten) {
+        modelThread.execute(() -> {
+            List<WorldModel> models = levels.get();
+            for (ProjectFile.Changes levelChanges : unwritten) {
+                models.get(levelChanges.level()).markDirty(levelChanges.getDirtyChunks());
+            }
+        });
+    }
+
+    /**
+     * Saves the remaining changes, waits for them to be written and closes the file.
+     * Must be called on the thread that edits the models.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        save();
+        closed = true;
+        scheduler.shutdownNow();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                throw new IOException("Timed out writing the project");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the project", e);
+        } finally {
+            file.close();
+        }
+    }
+}
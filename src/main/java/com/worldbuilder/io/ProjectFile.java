@@ -0,0 +1,366 @@
+package com.worldbuilder.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * ProjectFile - Native project format, memory-mapped and updated in place.
+ *
+ * Layout (big endian):
+ * <pre>
+ * header   magic "WBPJ", u16 version, u16 chunk size, i32 width, i32 height, u16 level count,
+ *          u16 layer count, then per layer u8 name length and name, zero padded to 4096 bytes
+ * levels   the ground, then each elevation bottom to top, holding one region per layer
+ *          in header order
+ * region   one record per chunk in row-major order
+ * record   chunk size * chunk size i16 cells, row by row, tiles outside the world are 0
+ * </pre>
+ * Every chunk record has a fixed size and offset, so a changed chunk is saved by
+ * overwriting its record without touching the rest of the file. A level is appended
+ * when its first chunk is saved. Version 1 files hold only the ground and have no
+ * level count; they are upgraded when an elevation is saved to them.
+ */
+public final class ProjectFile implements Closeable {
+    public static final String EXTENSION = ".wbproj";
+
+    private static final int MAGIC = 0x5742504A; // "WBPJ"
+    private static final int VERSION = 2;
+    private static final int GROUND_ONLY_VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+    private static final int CHUNK = WorldModel.CHUNK_SIZE;
+    private static final int RECORD_CELLS = CHUNK * CHUNK;
+    private static final int RECORD_BYTES = RECORD_CELLS * Short.BYTES;
+
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final int chunkColumns;
+    private final int chunkCount;
+    // Layer names in header order, and the header position of each TileType ordinal
+    private final String[] layerNames;
+    private final int[] layerOf = new int[TileType.values().length];
+    // Record regions of every level by TileType ordinal
+    private final List<MappedByteBuffer[]> regions = new ArrayList<>();
+    private final List<ShortBuffer[]> records = new ArrayList<>();
+
+    /**
+     * Chunks copied out of the model of a level, waiting to be written.
+     * @param level The level the chunks belong to, 0 for the ground
+     * @param chunks The chunks, numbered as by {@link WorldModel#takeDirtyChunks}
+     * @param cells The cells of each chunk as a full record, in the order of {@code chunks}
+     */
+    public record Changes(int level, int[] chunks, short[] cells) {
+        public boolean isEmpty() {
+            return chunks.length == 0;
+        }
+
+        public long getBytes() {
+            return (long) chunks.length * RECORD_BYTES;
+        }
+
+        /**
+         * Gets the chunks as the dirty bits they were collected from.
+         */
+        public BitSet getDirtyChunks() {
+            BitSet dirty = new BitSet();
+            for (int chunk : chunks) {
+                dirty.set(chunk);
+            }
+            return dirty;
+        }
+    }
+
+    private ProjectFile(FileChannel channel, int width, int height, String[] layerNames) {
+        this.channel = channel;
+        this.width = width;
+        this.height = height;
+        this.chunkColumns = (width + CHUNK - 1) / CHUNK;
+        this.chunkCount = chunkColumns * ((height + CHUNK - 1) / CHUNK);
+        this.layerNames = layerNames;
+        Arrays.fill(layerOf, -1);
+        for (int layer = 0; layer < layerNames.length; layer++) {
+            TileType type = tileType(layerNames[layer]);
+            if (type != null) {
+                layerOf[type.ordinal()] = layer;
+            }
+        }
+    }
+
+    /**
+     * Creates an empty project file for a world of the given size, replacing any existing file.
+     * Its content is written by saving the changes of each level's model after
+     * {@link WorldModel#markAllDirty}.
+     */
+    public static ProjectFile create(Path path, int width, int height) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            String[] names = Arrays.stream(TileType.values()).map(TileType::name).toArray(String[]::new);
+            ProjectFile file = new ProjectFile(channel, width, height, names);
+            // Records are zero until written, which most file systems store sparsely
+            file.addLevel();
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing project file for reading and saving.
+     *
+     * @throws IOException if the file is not a project file or lacks a layer of the editor
+     */
+    public static ProjectFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a project file: " + path.getFileName());
+            }
+            int version = header.getShort() & 0xFFFF;
+            if (version != VERSION && version != GROUND_ONLY_VERSION) {
+                throw new IOException("Unsupported project file version " + version);
+            }
+            int chunkSize = header.getShort() & 0xFFFF;
+            if (chunkSize != CHUNK) {
+                throw new IOException("Unsupported project chunk size " + chunkSize);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            if (width <= 0 || height <= 0) {
+                throw new IOException("Invalid world size " + width + "x" + height);
+            }
+
+            int levelCount = version == GROUND_ONLY_VERSION ? 1 : header.getShort() & 0xFFFF;
+            int layerCount = header.getShort() & 0xFFFF;
+            if (levelCount == 0) {
+                throw new IOException("Project file has no levels");
+            }
+            String[] names = new String[layerCount];
+            for (int layer = 0; layer < layerCount; layer++) {
+                byte[] name = new byte[header.get() & 0xFF];
+                header.get(name);
+                names[layer] = new String(name, StandardCharsets.US_ASCII);
+            }
+
+            ProjectFile file = new ProjectFile(channel, width, height, names);
+            for (TileType type : TileType.values()) {
+                if (file.layerOf[type.ordinal()] < 0) {
+                    throw new IOException("Project file has no " + type + " layer");
+                }
+            }
+            for (int level = 0; level < levelCount; level++) {
+                file.mapLevel();
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the regions of the next level, which extends the file if they lie beyond its end.
+     */
+    private void mapLevel() throws IOException {
+        long size = (long) chunkCount * RECORD_BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("World is too large for a project file: " + width + "x" + height);
+        }
+        MappedByteBuffer[] levelRegions = new MappedByteBuffer[TileType.values().length];
+        ShortBuffer[] levelRecords = new ShortBuffer[TileType.values().length];
+        long levelStart = HEADER_SIZE + regions.size() * layerNames.length * size;
+        for (TileType type : TileType.values()) {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE,
+                    levelStart + layerOf[type.ordinal()] * size, size);
+            levelRegions[type.ordinal()] = region;
+            levelRecords[type.ordinal()] = region.asShortBuffer();
+        }
+        regions.add(levelRegions);
+        records.add(levelRecords);
+    }
+
+    /**
+     * Appends an empty level and writes the header with the new level count.
+     */
+    private void addLevel() throws IOException {
+        mapLevel();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putShort((short) VERSION);
+        header.putShort((short) CHUNK);
+        header.putInt(width);
+        header.putInt(height);
+        header.putShort((short) regions.size());
+        header.putShort((short) layerNames.length);
+        for (String layerName : layerNames) {
+            byte[] name = layerName.getBytes(StandardCharsets.US_ASCII);
+            header.put((byte) name.length);
+            header.put(name);
+        }
+        header.rewind();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    /**
+     * Reads the ground of the project into the given model, replacing its content.
+     * The model is left without changes to save, as it matches the file.
+     *
+     * @throws IOException if the size of the project differs from the model
+     */
+    public void read(WorldModel model) throws IOException {
+        read(0, model);
+    }
+
+    /**
+     * Reads a level of the project into the given model, replacing its content.
+     * A level the file does not hold leaves the model empty.
+     * The model is left without changes to save, as it matches the file.
+     *
+     * @param level The level to read, 0 for the ground and 1 and up for the elevations
+     * @throws IOException if the size of the project differs from the model
+     */
+    public void read(int level, WorldModel model) throws IOException {
+        if (width != model.getWidth() || height != model.getHeight()) {
+            throw new IOException("Project is " + width + "x" + height + " but the editor is "
+                    + model.getWidth() + "x" + model.getHeight());
+        }
+
+        model.clear();
+        if (level >= records.size()) {
+            model.takeDirtyChunks();
+            return;
+        }
+        short[] record = new short[RECORD_CELLS];
+        for (TileType type : TileType.values()) {
+            ShortBuffer source = records.get(level)[type.ordinal()];
+            // Layers stay unallocated until a chunk of them holds a tile
+            short[] cells = model.hasLayer(type) ? model.getLayer(type) : null;
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                source.get(chunk * RECORD_CELLS, record);
+                if (cells == null) {
+                    if (isEmpty(record)) {
+                        continue;
+                    }
+                    cells = model.getLayer(type);
+                }
+                int x0 = (chunk % chunkColumns) * CHUNK;
+                int y0 = (chunk / chunkColumns) * CHUNK;
+                int columns = Math.min(CHUNK, width - x0);
+                for (int row = 0; row < CHUNK && y0 + row < height; row++) {
+                    System.arraycopy(record, row * CHUNK, cells, (y0 + row) * width + x0, columns);
+                }
+            }
+        }
+        model.takeDirtyChunks();
+    }
+
+    /**
+     * Copies the chunks changed in the model of a level since the last call out of it.
+     * This only touches the changed chunks, so it is cheap enough for the editing thread.
+     * @param level The level of the model, 0 for the ground
+     */
+    public static Changes collect(WorldModel model, int level) {
+        BitSet dirty = model.takeDirtyChunks();
+        int[] chunks = dirty.stream().toArray();
+        short[] cells = new short[chunks.length * RECORD_CELLS];
+
+        int width = model.getWidth();
+        int height = model.getHeight();
+        int columns = model.getChunkColumns();
+        TileType[] types = TileType.values();
+        for (int i = 0; i < chunks.length; i++) {
+            short[] layer = model.getLayer(types[chunks[i] / model.getChunkCount()]);
+            int chunk = chunks[i] % model.getChunkCount();
+            int x0 = (chunk % columns) * CHUNK;
+            int y0 = (chunk / columns) * CHUNK;
+            int rowLength = Math.min(CHUNK, width - x0);
+            for (int row = 0; row < CHUNK && y0 + row < height; row++) {
+                System.arraycopy(layer, (y0 + row) * width + x0, cells, i * RECORD_CELLS + row * CHUNK, rowLength);
+            }
+        }
+        return new Changes(level, chunks, cells);
+    }
+
+    /**
+     * Writes collected chunks over their records and flushes them to disk, appending
+     * levels up to the one of the chunks if the file does not hold it yet.
+     * Only one thread may write at a time.
+     */
+    public void write(Changes changes) throws IOException {
+        while (records.size() <= changes.level()) {
+            addLevel();
+        }
+        ShortBuffer[] levelRecords = records.get(changes.level());
+        MappedByteBuffer[] levelRegions = regions.get(changes.level());
+
+        BitSet touched = new BitSet();
+        int[] chunks = changes.chunks();
+        for (int i = 0; i < chunks.length; i++) {
+            int type = chunks[i] / chunkCount;
+            levelRecords[type].put((chunks[i] % chunkCount) * RECORD_CELLS, changes.cells(), i * RECORD_CELLS, RECORD_CELLS);
+            touched.set(type);
+        }
+        touched.stream().forEach(type -> levelRegions[type].force());
+    }
+
+    /**
+     * Number of levels the file holds, the ground and the elevations saved to it.
+     */
+    public int getLevelCount() {
+        return records.size();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static TileType tileType(String name) {
+        try {
+            return TileType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isEmpty(short[] record) {
+        for (short cell : record) {
+            if (cell != WorldModel.EMPTY) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
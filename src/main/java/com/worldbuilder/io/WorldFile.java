@@ -0,0 +1,568 @@
+package com.worldbuilder.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.worldbuilder.TileType;
+import com.worldbuilder.model.WorldModel;
+
+/**
+ * WorldFile - Compact binary world format, written and read in a streaming fashion.
+ *
+ * Layout (big endian):
+ * <pre>
+ * header   magic "WBLD", u16 version, u16 flags, i32 width, i32 height, u16 chunk size, u16 layer count
+ * layer    u8 name length, name, u16 palette size, palette (i16 cells),
+ *          then one record per chunk in row-major order
+ * chunk    u8 encoding (EMPTY, RAW or RLE, high bit set when deflated),
+ *          [i32 raw length if deflated], i32 stored length, payload
+ * </pre>
+ * Tiles are stored as indices into the layer palette, one byte wide when the
+ * palette has at most 256 entries and two bytes otherwise.
+ * Layers of the ground are named after their TileType, layers of an elevation
+ * append "@" and its level, e.g. "WALL@1"; readers skip the names they do not know.
+ */
+public final class WorldFile {
+    public static final String EXTENSION = ".world";
+
+    private static final int MAGIC = 0x57424C44; // "WBLD"
+    private static final int VERSION = 1;
+    private static final int FLAG_DEFLATE = 1;
+    private static final int CHUNK_TILES = 32;
+    private static final int MAX_CHUNK_TILES = 256;
+
+    private static final int ENCODING_EMPTY = 0;
+    private static final int ENCODING_RAW = 1;
+    private static final int ENCODING_RLE = 2;
+    private static final int DEFLATED = 0x80;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RUN = 255;
+    private static final char LEVEL_SEPARATOR = '@';
+
+    private WorldFile() {
+        // This class should not be instantiated
+    }
+
+    /**
+     * Writes every allocated layer of the model to the given file, deflating chunks.
+     */
+    public static void write(WorldModel model, Path path) throws IOException {
+        write(model, path, true);
+    }
+
+    /**
+     * Writes every allocated layer of the model to the given file.
+     *
+     * @param model The world to write
+     * @param path The file to write, replaced if it exists
+     * @param deflate Whether chunk payloads are deflated when that makes them smaller
+     */
+    public static void write(WorldModel model, Path path, boolean deflate) throws IOException {
+        write(model, List.of(), path, deflate);
+    }
+
+    /**
+     * Writes every allocated layer of the ground and of the elevations to the given file.
+     *
+     * @param model The ground of the world
+     * @param elevations The elevations, the first one standing on level 1, all the size of the ground
+     * @param path The file to write, replaced if it exists
+     * @param deflate Whether chunk payloads are deflated when that makes them smaller
+     */
+    public static void write(WorldModel model, List<WorldModel> elevations, Path path, boolean deflate)
+            throws IOException {
+        int width = model.getWidth();
+        int height = model.getHeight();
+
+        List<String> names = new ArrayList<>();
+        List<short[]> layers = new ArrayList<>();
+        for (int level = 0; level <= elevations.size(); level++) {
+            WorldModel levelModel = level == 0 ? model : elevations.get(level - 1);
+            if (levelModel.getWidth() != width || levelModel.getHeight() != height) {
+                throw new IllegalArgumentException("Elevation " + level + " differs in size from the ground");
+            }
+            for (TileType type : TileType.values()) {
+                if (levelModel.hasLayer(type)) {
+                    names.add(level == 0 ? type.name() : type.name() + LEVEL_SEPARATOR + level);
+                    layers.add(levelModel.getLayer(type));
+                }
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+            out.putInt(MAGIC);
+            out.putShort((short) VERSION);
+            out.putShort((short) (deflate ? FLAG_DEFLATE : 0));
+            out.putInt(width);
+            out.putInt(height);
+            out.putShort((short) CHUNK_TILES);
+            out.putShort((short) layers.size());
+
+            int[] paletteLookup = new int[1 << 16];
+            Arrays.fill(paletteLookup, -1);
+            int maxChunkBytes = CHUNK_TILES * CHUNK_TILES * 3;
+            byte[] raw = new byte[maxChunkBytes];
+            byte[] rle = new byte[maxChunkBytes];
+            byte[] packed = new byte[maxChunkBytes + 64];
+            Deflater deflater = deflate ? new Deflater(Deflater.BEST_SPEED) : null;
+
+            try {
+                for (int layer = 0; layer < layers.size(); layer++) {
+                    short[] cells = layers.get(layer);
+
+                    // Palette of the distinct cells in this layer, EMPTY first
+                    short[] palette = buildPalette(cells, paletteLookup);
+                    boolean wide = palette.length > 256;
+
+                    byte[] name = names.get(layer).getBytes(StandardCharsets.US_ASCII);
+                    ensure(channel, out, 1 + name.length + 2 + palette.length * 2);
+                    out.put((byte) name.length);
+                    out.put(name);
+                    out.putShort((short) palette.length);
+                    for (short cell : palette) {
+                        out.putShort(cell);
+                    }
+
+                    for (int chunkY = 0; chunkY < height; chunkY += CHUNK_TILES) {
+                        for (int chunkX = 0; chunkX < width; chunkX += CHUNK_TILES) {
+                            writeChunk(channel, out, cells, width, height, chunkX, chunkY,
+                                    paletteLookup, wide, raw, rle, packed, deflater);
+                        }
+                    }
+
+                    for (short cell : palette) {
+                        paletteLookup[cell & 0xFFFF] = -1;
+                    }
+                }
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+
+            flush(channel, out);
+        }
+    }
+
+    /**
+     * Reads a world file into a new model sized from its header.
+     *
+     * @throws IOException if the file is not a world file
+     */
+    public static WorldModel read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer in = ByteBuffer.allocate(16);
+            in.flip();
+            fill(channel, in, 16);
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a world file: " + path.getFileName());
+            }
+            in.getInt(); // version and flags, checked by read(Path, WorldModel)
+            int width = in.getInt();
+            int height = in.getInt();
+
+            WorldModel model;
+            try {
+                model = new WorldModel(width, height);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                throw new IOException("Corrupt world file: size " + width + "x" + height, e);
+            }
+            read(path, model);
+            return model;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt world file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the ground of a world file into the given model, replacing its content.
+     * Elevations and layers with unknown names are skipped.
+     *
+     * @throws IOException if the file is not a world file, is corrupt or its size differs from the model
+     */
+    public static void read(Path path, WorldModel model) throws IOException {
+        read(path, model, level -> null);
+    }
+
+    /**
+     * Reads a world file into the given ground model and the models of its elevations,
+     * replacing their content. Layers with unknown names are skipped.
+     *
+     * @param elevation Returns the model of the elevation on the given level, called once for
+     *                  each level in the file, or null to skip that level
+     * @throws IOException if the file is not a world file, is corrupt or its size differs from the models
+     */
+    public static void read(Path path, WorldModel model, IntFunction<WorldModel> elevation) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            in.flip();
+
+            fill(channel, in, 20);
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a world file: " + path.getFileName());
+            }
+            int version = in.getShort() & 0xFFFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported world file version " + version);
+            }
+            int flags = in.getShort() & 0xFFFF;
+            int width = in.getInt();
+            int height = in.getInt();
+            int chunkTiles = in.getShort() & 0xFFFF;
+            int layerCount = in.getShort() & 0xFFFF;
+
+            if (chunkTiles == 0 || chunkTiles > MAX_CHUNK_TILES) {
+                throw new IOException("Corrupt world file: chunk size " + chunkTiles);
+            }
+            if (width != model.getWidth() || height != model.getHeight()) {
+                throw new IOException("World is " + width + "x" + height + " but the editor is "
+                        + model.getWidth() + "x" + model.getHeight());
+            }
+
+            model.clear();
+            // Models of the elevations read so far by level, null for the skipped ones
+            Map<Integer, WorldModel> levels = new HashMap<>();
+
+            int maxChunkBytes = chunkTiles * chunkTiles * 3;
+            byte[] payload = new byte[maxChunkBytes + 64];
+            byte[] inflated = new byte[maxChunkBytes];
+            Inflater inflater = (flags & FLAG_DEFLATE) != 0 ? new Inflater() : null;
+
+            try {
+                for (int layer = 0; layer < layerCount; layer++) {
+                    fill(channel, in, 1);
+                    byte[] name = new byte[in.get() & 0xFF];
+                    fill(channel, in, name.length + 2);
+                    in.get(name);
+                    short[] palette = new short[in.getShort() & 0xFFFF];
+                    for (int i = 0; i < palette.length; i++) {
+                        // A wide palette can be larger than the buffer
+                        fill(channel, in, 2);
+                        palette[i] = in.getShort();
+                    }
+                    boolean wide = palette.length > 256;
+
+                    String layerName = new String(name, StandardCharsets.US_ASCII);
+                    int separator = layerName.indexOf(LEVEL_SEPARATOR);
+                    TileType type = tileType(separator < 0 ? layerName : layerName.substring(0, separator));
+                    WorldModel target = separator < 0 ? model : elevation(layerName.substring(separator + 1),
+                            levels, elevation, width, height);
+                    short[] cells = type != null && target != null ? target.getLayer(type) : null;
+
+                    for (int chunkY = 0; chunkY < height; chunkY += chunkTiles) {
+                        for (int chunkX = 0; chunkX < width; chunkX += chunkTiles) {
+                            readChunk(channel, in, cells, width, height, chunkX, chunkY, chunkTiles,
+                                    palette, wide, payload, inflated, inflater);
+                        }
+                    }
+                }
+            } finally {
+                // Layers allocated while reading were written directly
+                model.markAllDirty();
+                for (WorldModel levelModel : levels.values()) {
+                    if (levelModel != null) {
+                        levelModel.markAllDirty();
+                    }
+                }
+                if (inflater != null) {
+                    inflater.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the model of the elevation a layer belongs to, cleared the first time its level appears.
+     */
+    private static WorldModel elevation(String level, Map<Integer, WorldModel> levels,
+            IntFunction<WorldModel> elevation, int width, int height) throws IOException {
+        int number;
+        try {
+            number = Integer.parseInt(level);
+        } catch (NumberFormatException e) {
+            return null; // Not a level this version knows, skipped
+        }
+        if (number < 1) {
+            return null;
+        }
+        if (levels.containsKey(number)) {
+            return levels.get(number);
+        }
+
+        WorldModel levelModel = elevation.apply(number);
+        levels.put(number, levelModel);
+        if (levelModel != null) {
+            if (levelModel.getWidth() != width || levelModel.getHeight() != height) {
+                throw new IOException("World is " + width + "x" + height + " but elevation " + number + " is "
+                        + levelModel.getWidth() + "x" + levelModel.getHeight());
+            }
+            levelModel.clear();
+        }
+        return levelModel;
+    }
+
+    // ================== WRITING ==================//
+
+    private static short[] buildPalette(short[] cells, int[] lookup) {
+        short[] palette = new short[16];
+        int size = 0;
+        palette[size] = WorldModel.EMPTY;
+        lookup[WorldModel.EMPTY] = size++;
+
+        for (short cell : cells) {
+            if (lookup[cell & 0xFFFF] < 0) {
+                if (size == palette.length) {
+                    palette = Arrays.copyOf(palette, size * 2);
+                }
+                palette[size] = cell;
+                lookup[cell & 0xFFFF] = size++;
+            }
+        }
+        return Arrays.copyOf(palette, size);
+    }
+
+    private static void writeChunk(FileChannel channel, ByteBuffer out, short[] cells, int width, int height,
+            int chunkX, int chunkY, int[] lookup, boolean wide,
+            byte[] raw, byte[] rle, byte[] packed, Deflater deflater) throws IOException {
+        int maxX = Math.min(width, chunkX + CHUNK_TILES);
+        int maxY = Math.min(height, chunkY + CHUNK_TILES);
+
+        // Raw palette indices and run-length pairs are built in one pass
+        int rawLength = 0;
+        int rleLength = 0;
+        int runIndex = -1;
+        int runLength = 0;
+        boolean empty = true;
+
+        for (int y = chunkY; y < maxY; y++) {
+            int row = y * width;
+            for (int x = chunkX; x < maxX; x++) {
+                int index = lookup[cells[row + x] & 0xFFFF];
+                empty &= index == 0;
+                rawLength = putIndex(raw, rawLength, index, wide);
+
+                if (index == runIndex && runLength < MAX_RUN) {
+                    runLength++;
+                } else {
+                    if (runLength > 0) {
+                        rle[rleLength++] = (byte) runLength;
+                        rleLength = putIndex(rle, rleLength, runIndex, wide);
+                    }
+                    runIndex = index;
+                    runLength = 1;
+                }
+            }
+        }
+        rle[rleLength++] = (byte) runLength;
+        rleLength = putIndex(rle, rleLength, runIndex, wide);
+
+        if (empty) {
+            ensure(channel, out, 1);
+            out.put((byte) ENCODING_EMPTY);
+            return;
+        }
+
+        int encoding = rleLength < rawLength ? ENCODING_RLE : ENCODING_RAW;
+        byte[] payload = encoding == ENCODING_RLE ? rle : raw;
+        int length = encoding == ENCODING_RLE ? rleLength : rawLength;
+
+        if (deflater != null) {
+            deflater.reset();
+            deflater.setInput(payload, 0, length);
+            deflater.finish();
+            int deflatedLength = deflater.deflate(packed, 0, packed.length);
+            if (deflater.finished() && deflatedLength < length) {
+                ensure(channel, out, 9);
+                out.put((byte) (encoding | DEFLATED));
+                out.putInt(length);
+                out.putInt(deflatedLength);
+                put(channel, out, packed, deflatedLength);
+                return;
+            }
+        }
+
+        ensure(channel, out, 5);
+        out.put((byte) encoding);
+        out.putInt(length);
+        put(channel, out, payload, length);
+    }
+
+    private static int putIndex(byte[] target, int offset, int index, boolean wide) {
+        if (wide) {
+            target[offset++] = (byte) (index >> 8);
+        }
+        target[offset++] = (byte) index;
+        return offset;
+    }
+
+    private static void put(FileChannel channel, ByteBuffer out, byte[] data, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (!out.hasRemaining()) {
+                flush(channel, out);
+            }
+            int count = Math.min(out.remaining(), length - offset);
+            out.put(data, offset, count);
+            offset += count;
+        }
+    }
+
+    private static void ensure(FileChannel channel, ByteBuffer out, int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            flush(channel, out);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    // ================== READING ==================//
+
+    private static void readChunk(FileChannel channel, ByteBuffer in, short[] cells, int width, int height,
+            int chunkX, int chunkY, int chunkTiles, short[] palette, boolean wide,
+            byte[] payload, byte[] inflated, Inflater inflater) throws IOException {
+        fill(channel, in, 1);
+        int encoding = in.get() & 0xFF;
+        if (encoding == ENCODING_EMPTY) {
+            return;
+        }
+
+        boolean deflated = (encoding & DEFLATED) != 0;
+        encoding &= ~DEFLATED;
+        if (encoding != ENCODING_RAW && encoding != ENCODING_RLE) {
+            throw new IOException("Corrupt world file: unknown chunk encoding " + encoding);
+        }
+
+        fill(channel, in, deflated ? 8 : 4);
+        int length = in.getInt();
+        int storedLength = deflated ? in.getInt() : length;
+        if (length < 0 || storedLength < 0 || length > inflated.length || storedLength > payload.length) {
+            throw new IOException("Corrupt world file: chunk of " + length + " bytes");
+        }
+        get(channel, in, payload, storedLength);
+
+        byte[] data = payload;
+        if (deflated) {
+            if (inflater == null) {
+                throw new IOException("Corrupt world file: deflated chunk without deflate flag");
+            }
+            try {
+                inflater.reset();
+                inflater.setInput(payload, 0, storedLength);
+                if (inflater.inflate(inflated, 0, length) != length) {
+                    throw new IOException("Corrupt world file: truncated chunk");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt world file: " + e.getMessage(), e);
+            }
+            data = inflated;
+        }
+
+        if (cells == null) {
+            return; // Unknown layer, skipped
+        }
+
+        int maxX = Math.min(width, chunkX + chunkTiles);
+        int maxY = Math.min(height, chunkY + chunkTiles);
+        int indexBytes = wide ? 2 : 1;
+        int offset = 0;
+        int runLength = 0;
+        short runCell = WorldModel.EMPTY;
+
+        for (int y = chunkY; y < maxY; y++) {
+            int row = y * width;
+            for (int x = chunkX; x < maxX; x++) {
+                if (encoding == ENCODING_RLE) {
+                    if (runLength == 0) {
+                        if (offset + 1 + indexBytes > length) {
+                            throw new IOException("Corrupt world file: chunk ends inside a run");
+                        }
+                        runLength = data[offset++] & 0xFF;
+                        if (runLength == 0) {
+                            throw new IOException("Corrupt world file: empty run");
+                        }
+                        int index = wide ? ((data[offset++] & 0xFF) << 8) | (data[offset++] & 0xFF) : data[offset++] & 0xFF;
+                        runCell = paletteCell(palette, index);
+                    }
+                    cells[row + x] = runCell;
+                    runLength--;
+                } else {
+                    if (offset + indexBytes > length) {
+                        throw new IOException("Corrupt world file: chunk ends after " + length + " bytes");
+                    }
+                    int index = wide ? ((data[offset++] & 0xFF) << 8) | (data[offset++] & 0xFF) : data[offset++] & 0xFF;
+                    cells[row + x] = paletteCell(palette, index);
+                }
+            }
+        }
+    }
+
+    private static short paletteCell(short[] palette, int index) throws IOException {
+        if (index >= palette.length) {
+            throw new IOException("Corrupt world file: palette index " + index + " of " + palette.length);
+        }
+        return palette[index];
+    }
+
+    private static void get(FileChannel channel, ByteBuffer in, byte[] data, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (!in.hasRemaining()) {
+                fill(channel, in, 1);
+            }
+            int count = Math.min(in.remaining(), length - offset);
+            in.get(data, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Makes sure at least the given number of bytes can be read from the buffer.
+     */
+    private static void fill(FileChannel channel, ByteBuffer in, int bytes) throws IOException {
+        if (in.remaining() >= bytes) {
+            return;
+        }
+        if (bytes > in.capacity()) {
+            throw new IOException("Corrupt world file: record of " + bytes + " bytes");
+        }
+        in.compact();
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("Unexpected end of world file");
+            }
+        }
+        in.flip();
+    }
+
+    private static TileType tileType(String name) {
+        try {
+            return TileType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.worldbuilder.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter - A running total, e.g. of sprites drawn.
+ * Increments from any thread without locking or allocating.
+ */
+public final class Counter implements Metric {
+    private final String name;
+    private final LongAdder total = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        total.increment();
+    }
+
+    public void add(long amount) {
+        total.add(amount);
+    }
+
+    /**
+     * Gets the total since the editor started.
+     */
+    public long get() {
+        return total.sum();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,43 @@
+package com.worldbuilder.metrics;
+
+import javafx.scene.Scene;
+
+/**
+ * FrameMetrics - Frame times of a scene, taken from its pulse listeners.
+ * Listeners only run when JavaFX pulses, so an idle editor records nothing and
+ * no timer has to be kept running for the measurement.
+ */
+public final class FrameMetrics {
+    // Pulses further apart than this are not consecutive frames, the scene was idle
+    private static final long MAX_FRAME_NS = 250_000_000;
+
+    private static final Timer FRAME_INTERVAL = Metrics.timer("frame.interval");
+    private static final Timer FRAME_LAYOUT = Metrics.timer("frame.layout");
+
+    private long pulseStart;
+    private long lastPulse;
+
+    private FrameMetrics() {
+    }
+
+    /**
+     * Records the time between frames and the CSS and layout time of each frame of the scene.
+     */
+    public static void attach(Scene scene) {
+        FrameMetrics frames = new FrameMetrics();
+        scene.addPreLayoutPulseListener(frames::beforeLayout);
+        scene.addPostLayoutPulseListener(frames::afterLayout);
+    }
+
+    private void beforeLayout() {
+        pulseStart = System.nanoTime();
+        if (lastPulse != 0 && pulseStart - lastPulse < MAX_FRAME_NS) {
+            FRAME_INTERVAL.record(pulseStart - lastPulse);
+        }
+        lastPulse = pulseStart;
+    }
+
+    private void afterLayout() {
+        FRAME_LAYOUT.stop(pulseStart);
+    }
+}
@@ -0,0 +1,132 @@
+package com.worldbuilder.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram - The distribution of recorded values, e.g. tiles per stroke.
+ * Values go into logarithmic buckets, four per power of two, so percentiles are
+ * accurate to within 25% over the whole range of a long. Recording is two
+ * atomic adds and never allocates. The counts are never reset, readers take
+ * {@link Snapshot}s and subtract the previous one to get an interval.
+ */
+public sealed class Histogram implements Metric permits Timer {
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int BUCKETS = (63 - SUB_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong sum = new AtomicLong();
+
+    Histogram(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    /**
+     * Records a value, negative values count as 0.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        buckets.incrementAndGet(bucketOf(v));
+        sum.addAndGet(v);
+    }
+
+    /**
+     * Copies the counts recorded so far.
+     */
+    public Snapshot snapshot() {
+        // The count is the sum of the buckets, which saves an atomic add per value
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        return new Snapshot(count, sum.get(), counts);
+    }
+
+    /**
+     * Formats a value of this histogram for display.
+     */
+    public String format(double value) {
+        return String.format("%.0f %s", value, unit);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Largest value that goes into a bucket.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS - 1) {
+            return bucket;
+        }
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int next = bucket + 1;
+        int exponent = next / SUB_BUCKETS + SUB_BITS - 1;
+        long lower = (long) (SUB_BUCKETS + next % SUB_BUCKETS) << (exponent - SUB_BITS);
+        return lower - 1;
+    }
+
+    /**
+     * The counts of a histogram at one point in time.
+     */
+    public record Snapshot(long count, long sum, long[] buckets) {
+
+        /**
+         * Gets what was recorded between an earlier snapshot and this one.
+         */
+        public Snapshot minus(Snapshot earlier) {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i] - earlier.buckets[i];
+            }
+            return new Snapshot(count - earlier.count, sum - earlier.sum, counts);
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Gets the value below which the given fraction of the values lie, as the
+         * upper bound of its bucket.
+         */
+        public long percentile(double fraction) {
+            long rank = (long) Math.ceil(fraction * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return upperBound(i);
+                }
+            }
+            return 0;
+        }
+
+        public long max() {
+            return percentile(1);
+        }
+    }
+}
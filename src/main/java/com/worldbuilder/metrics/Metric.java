@@ -0,0 +1,9 @@
+package com.worldbuilder.metrics;
+
+/**
+ * Metric - A named measurement kept by {@link Metrics}.
+ */
+public sealed interface Metric permits Counter, Histogram {
+
+    String getName();
+}
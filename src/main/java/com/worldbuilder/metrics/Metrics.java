@@ -0,0 +1,62 @@
+package com.worldbuilder.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Metrics - Registry of the counters, histograms and timers of the editor.
+ * Hot paths look their metrics up once, usually into a static final field, and
+ * then record into them directly. Recording is cheap and allocation-free, so
+ * metrics stay on in normal editing sessions.
+ */
+public final class Metrics {
+    private static final Map<String, Metric> metrics = new LinkedHashMap<>();
+
+    private Metrics() {
+        // This class should not be instantiated
+    }
+
+    /**
+     * Gets the counter with the given name, creating it on first use.
+     */
+    public static Counter counter(String name) {
+        return register(name, Counter.class, () -> new Counter(name));
+    }
+
+    /**
+     * Gets the histogram with the given name, creating it on first use.
+     * @param unit Unit of the recorded values, for display
+     */
+    public static Histogram histogram(String name, String unit) {
+        return register(name, Histogram.class, () -> new Histogram(name, unit));
+    }
+
+    /**
+     * Gets the timer with the given name, creating it on first use.
+     */
+    public static Timer timer(String name) {
+        return register(name, Timer.class, () -> new Timer(name));
+    }
+
+    /**
+     * Gets every metric, in the order they were registered.
+     */
+    public static List<Metric> getAll() {
+        synchronized (metrics) {
+            return new ArrayList<>(metrics.values());
+        }
+    }
+
+    private static <T extends Metric> T register(String name, Class<T> type, Supplier<T> factory) {
+        synchronized (metrics) {
+            Metric metric = metrics.computeIfAbsent(name, key -> factory.get());
+            if (!type.isInstance(metric)) {
+                throw new IllegalArgumentException("Metric " + name + " is a " + metric.getClass().getSimpleName());
+            }
+            return type.cast(metric);
+        }
+    }
+}
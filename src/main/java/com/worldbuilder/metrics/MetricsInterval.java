@@ -0,0 +1,65 @@
+package com.worldbuilder.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MetricsInterval - What the metrics recorded since the last look.
+ * Each reader keeps its own interval, so the overlay and the file dump can read
+ * at different rates without resetting the metrics under each other.
+ */
+public final class MetricsInterval {
+    private final Map<Metric, Long> counters = new HashMap<>();
+    private final Map<Metric, Histogram.Snapshot> histograms = new HashMap<>();
+    private long lastNanos = System.nanoTime();
+    private double seconds;
+
+    /**
+     * A metric that changed in the interval.
+     * @param count The increase of a counter, or the number of recorded values of a histogram
+     * @param snapshot The values recorded by a histogram, null for a counter
+     */
+    public record Entry(Metric metric, long count, Histogram.Snapshot snapshot) {}
+
+    /**
+     * Ends the interval and starts the next one.
+     * @return The metrics that changed, in the order they were registered
+     */
+    public List<Entry> next() {
+        long now = System.nanoTime();
+        seconds = (now - lastNanos) / 1e9;
+        lastNanos = now;
+
+        List<Entry> entries = new ArrayList<>();
+        for (Metric metric : Metrics.getAll()) {
+            switch (metric) {
+                case Counter counter -> {
+                    long total = counter.get();
+                    Long previous = counters.put(counter, total);
+                    long delta = total - (previous != null ? previous : 0);
+                    if (delta != 0) {
+                        entries.add(new Entry(counter, delta, null));
+                    }
+                }
+                case Histogram histogram -> {
+                    Histogram.Snapshot snapshot = histogram.snapshot();
+                    Histogram.Snapshot previous = histograms.put(histogram, snapshot);
+                    Histogram.Snapshot delta = previous != null ? snapshot.minus(previous) : snapshot;
+                    if (delta.count() != 0) {
+                        entries.add(new Entry(histogram, delta.count(), delta));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Length of the interval ended by the last call to {@link #next()}.
+     */
+    public double getSeconds() {
+        return seconds;
+    }
+}
@@ -0,0 +1,119 @@
+package com.worldbuilder.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsReporter - Appends the metrics of each interval to a local file.
+ * The file is CSV, or JSON with one object per line if its name ends in .json.
+ * Only metrics that changed in an interval are written. Histograms are written
+ * in their own unit, timers in nanoseconds.
+ */
+public final class MetricsReporter implements Closeable {
+    private static final String CSV_HEADER = "time,name,unit,count,mean,p50,p95,p99,max";
+
+    private final Path file;
+    private final boolean json;
+    private final MetricsInterval interval = new MetricsInterval();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Starts dumping the metrics to a file, appending to it if it exists.
+     */
+    public MetricsReporter(Path file, long period, TimeUnit unit) {
+        this.file = file;
+        this.json = file.getFileName().toString().endsWith(".json");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MetricsReporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::dump, period, period, unit);
+    }
+
+    /**
+     * Gets the file set with -Dworldbuilder.metrics, by default metrics.csv in
+     * the .worldbuilder folder of the user's home.
+     */
+    public static Path defaultFile() {
+        String path = System.getProperty("worldbuilder.metrics");
+        return path != null
+                ? Path.of(path)
+                : Path.of(System.getProperty("user.home"), ".worldbuilder", "metrics.csv");
+    }
+
+    private synchronized void dump() {
+        List<MetricsInterval.Entry> entries = interval.next();
+        if (entries.isEmpty()) {
+            return;
+        }
+        String time = Instant.now().toString();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            boolean header = !json && (!Files.exists(file) || Files.size(file) == 0);
+            try (Writer writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (header) {
+                    writer.write(CSV_HEADER);
+                    writer.write('\n');
+                }
+                for (MetricsInterval.Entry entry : entries) {
+                    writer.write(json ? toJson(time, entry) : toCsv(time, entry));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String toCsv(String time, MetricsInterval.Entry entry) {
+        Histogram.Snapshot s = entry.snapshot();
+        if (s == null) {
+            return String.join(",", time, entry.metric().getName(), "", Long.toString(entry.count()), "", "", "", "", "");
+        }
+        Histogram histogram = (Histogram) entry.metric();
+        return String.format(Locale.ROOT, "%s,%s,%s,%d,%.1f,%d,%d,%d,%d", time, histogram.getName(), histogram.getUnit(),
+                s.count(), s.mean(), s.percentile(0.5), s.percentile(0.95), s.percentile(0.99), s.max());
+    }
+
+    private static String toJson(String time, MetricsInterval.Entry entry) {
+        Histogram.Snapshot s = entry.snapshot();
+        if (s == null) {
+            return String.format(Locale.ROOT, "{\"time\":\"%s\",\"name\":\"%s\",\"count\":%d}",
+                    time, entry.metric().getName(), entry.count());
+        }
+        Histogram histogram = (Histogram) entry.metric();
+        return String.format(Locale.ROOT,
+                "{\"time\":\"%s\",\"name\":\"%s\",\"unit\":\"%s\",\"count\":%d,\"mean\":%.1f,"
+                        + "\"p50\":%d,\"p95\":%d,\"p99\":%d,\"max\":%d}",
+                time, histogram.getName(), histogram.getUnit(), s.count(), s.mean(),
+                s.percentile(0.5), s.percentile(0.95), s.percentile(0.99), s.max());
+    }
+
+    /**
+     * Writes the last interval and stops reporting.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dump();
+    }
+}
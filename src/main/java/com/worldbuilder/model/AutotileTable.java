@@ -0,0 +1,55 @@
+package com.worldbuilder.model;
+
+/**
+ * AutotileTable - Table-driven autotiling over a layer of the {@link WorldModel}.
+ * The occupied neighbours of a tile are packed into a bitmask which indexes a
+ * precomputed variant table, so resolving a variant is a few array reads and
+ * never allocates.
+ */
+public final class AutotileTable {
+    // Edge neighbours
+    public static final int TOP = 1;
+    public static final int RIGHT = 2;
+    public static final int BOTTOM = 4;
+    public static final int LEFT = 8;
+
+    private final byte[] variants;
+
+    private AutotileTable(int[] variants) {
+        this.variants = new byte[variants.length];
+        for (int i = 0; i < variants.length; i++) {
+            this.variants[i] = (byte) variants[i];
+        }
+    }
+
+    /**
+     * Creates a table indexed by the 4-neighbour mask (16 entries).
+     * Entries may be negative to mark masks the layer resolves itself.
+     */
+    public static AutotileTable edges(int... variants) {
+        if (variants.length != 16) {
+            throw new IllegalArgumentException("Edge table needs 16 entries, got " + variants.length);
+        }
+        return new AutotileTable(variants);
+    }
+
+    /**
+     * Resolves the variant of the tile at (x, y) from its neighbours.
+     */
+    public int resolve(short[] cells, int width, int height, int x, int y) {
+        return variants[mask4(cells, width, height, x, y)];
+    }
+
+    /**
+     * Packs the occupied edge neighbours of (x, y) into a mask.
+     */
+    public static int mask4(short[] cells, int width, int height, int x, int y) {
+        int i = y * width + x;
+        int mask = 0;
+        if (y > 0 && cells[i - width] != WorldModel.EMPTY) mask |= TOP;
+        if (x < width - 1 && cells[i + 1] != WorldModel.EMPTY) mask |= RIGHT;
+        if (y < height - 1 && cells[i + width] != WorldModel.EMPTY) mask |= BOTTOM;
+        if (x > 0 && cells[i - 1] != WorldModel.EMPTY) mask |= LEFT;
+        return mask;
+    }
+}
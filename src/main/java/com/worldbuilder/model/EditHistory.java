@@ -0,0 +1,208 @@
+package com.worldbuilder.model;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+
+import com.worldbuilder.TileType;
+
+/**
+ * EditHistory - Undo and redo of {@link TileEdit}s on a {@link WorldModel}.
+ * An edit is recorded between {@link #begin} and {@link #end}, either by observing
+ * the cells written through {@link WorldModel#write} (strokes and fills) or by
+ * diffing a snapshot of all layers (imports that load the arrays directly).
+ * The oldest edits are evicted once the history exceeds its memory budget.
+ */
+public final class EditHistory {
+    private final WorldModel model;
+    private final long maxBytes;
+
+    private final Deque<TileEdit> undoStack = new ArrayDeque<>();
+    private final Deque<TileEdit> redoStack = new ArrayDeque<>();
+    private long bytes;
+
+    // State of the edit being recorded
+    private TileEdit current;
+    private int depth;
+    private short[][] snapshot;
+    private final BitSet[] touched = new BitSet[TileType.values().length];
+
+    /**
+     * Creates a history for the given model.
+     * @param model The model edits are recorded on
+     * @param maxBytes Memory budget of the undo and redo stacks together
+     */
+    public EditHistory(WorldModel model, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("History budget must be positive: " + maxBytes);
+        }
+        this.model = model;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Starts recording an edit from the cells written through {@link WorldModel#write}.
+     * Nested calls join the edit that is already being recorded.
+     */
+    public void begin(String name) {
+        if (depth++ > 0) {
+            return;
+        }
+        current = new TileEdit(name);
+        model.setObserver(this::record);
+    }
+
+    /**
+     * Starts recording an edit by snapshotting every layer, for operations that
+     * write the layer arrays directly.
+     */
+    public void beginSnapshot(String name) {
+        if (depth++ > 0) {
+            return;
+        }
+        current = new TileEdit(name);
+        TileType[] types = TileType.values();
+        snapshot = new short[types.length][];
+        for (TileType type : types) {
+            if (model.hasLayer(type)) {
+                snapshot[type.ordinal()] = model.getLayer(type).clone();
+            }
+        }
+    }
+
+    /**
+     * Finishes the edit started by the matching begin call and pushes it onto the history.
+     * @return The finished edit, or null if it is nested or changed nothing
+     */
+    public TileEdit end() {
+        if (depth == 0 || --depth > 0) {
+            return null;
+        }
+
+        TileEdit edit = current;
+        current = null;
+        model.setObserver(null);
+
+        if (snapshot != null) {
+            diffSnapshot(edit);
+            snapshot = null;
+        }
+        for (BitSet bits : touched) {
+            if (bits != null) {
+                bits.clear();
+            }
+        }
+
+        edit.seal(model);
+        if (edit.isEmpty()) {
+            return null;
+        }
+
+        undoStack.push(edit);
+        bytes += edit.getMemoryFootprint();
+        bytes -= footprint(redoStack);
+        redoStack.clear();
+        evict();
+        return edit;
+    }
+
+    /**
+     * Reverts the most recent edit.
+     * @return The reverted edit, so its region can be repainted, or null if there is nothing to undo
+     */
+    public TileEdit undo() {
+        if (depth > 0 || undoStack.isEmpty()) {
+            return null;
+        }
+        TileEdit edit = undoStack.pop();
+        edit.undo(model);
+        redoStack.push(edit);
+        return edit;
+    }
+
+    /**
+     * Reapplies the most recently undone edit.
+     * @return The reapplied edit, or null if there is nothing to redo
+     */
+    public TileEdit redo() {
+        if (depth > 0 || redoStack.isEmpty()) {
+            return null;
+        }
+        TileEdit edit = redoStack.pop();
+        edit.redo(model);
+        undoStack.push(edit);
+        return edit;
+    }
+
+    /**
+     * Forgets every recorded edit, e.g. after the model was replaced by a loaded world.
+     * An edit being recorded is kept and still pushed when it ends.
+     */
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        bytes = 0;
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    /**
+     * Bytes held by the recorded edits.
+     */
+    public long getMemoryFootprint() {
+        return bytes;
+    }
+
+    private void record(TileType type, int index, short previous) {
+        BitSet bits = touched[type.ordinal()];
+        if (bits == null) {
+            bits = new BitSet(model.getWidth() * model.getHeight());
+            touched[type.ordinal()] = bits;
+        }
+        // Only the value before the first write of a cell matters
+        if (!bits.get(index)) {
+            bits.set(index);
+            current.add(type, index, previous);
+        }
+    }
+
+    private void diffSnapshot(TileEdit edit) {
+        for (TileType type : TileType.values()) {
+            if (!model.hasLayer(type)) {
+                continue;
+            }
+            short[] cells = model.getLayer(type);
+            short[] previous = snapshot[type.ordinal()];
+            for (int i = 0; i < cells.length; i++) {
+                short before = previous == null ? WorldModel.EMPTY : previous[i];
+                if (cells[i] != before) {
+                    edit.add(type, i, before);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest edits until the history fits its budget.
+     * The newest edit is always kept so it can be undone at least once.
+     */
+    private void evict() {
+        while (bytes > maxBytes && undoStack.size() > 1) {
+            bytes -= undoStack.removeLast().getMemoryFootprint();
+        }
+    }
+
+    private static long footprint(Deque<TileEdit> edits) {
+        long total = 0;
+        for (TileEdit edit : edits) {
+            total += edit.getMemoryFootprint();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,144 @@
+package com.worldbuilder.model;
+
+import java.util.Arrays;
+
+import com.worldbuilder.TileType;
+
+/**
+ * TileEdit - One undoable command, such as a stroke, a fill or an import.
+ * Stores only the cells that changed, as (layer, index, before, after) in
+ * parallel primitive arrays, which is 9 bytes per changed cell.
+ */
+public final class TileEdit {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String name;
+    private byte[] layers = new byte[INITIAL_CAPACITY];
+    private int[] indices = new int[INITIAL_CAPACITY];
+    private short[] before = new short[INITIAL_CAPACITY];
+    private short[] after;
+    private int size;
+
+    /**
+     * Receives the bounding box (inclusive, in tiles) of the cells an edit changed in one layer.
+     */
+    @FunctionalInterface
+    public interface RegionConsumer {
+        void accept(TileType type, int x0, int y0, int x1, int y1);
+    }
+
+    TileEdit(String name) {
+        this.name = name;
+    }
+
+    void add(TileType type, int index, short previous) {
+        if (size == indices.length) {
+            int capacity = size * 2;
+            layers = Arrays.copyOf(layers, capacity);
+            indices = Arrays.copyOf(indices, capacity);
+            before = Arrays.copyOf(before, capacity);
+        }
+        layers[size] = (byte) type.ordinal();
+        indices[size] = index;
+        before[size] = previous;
+        size++;
+    }
+
+    /**
+     * Reads the new value of every recorded cell, drops the ones that ended up
+     * unchanged and trims the buffers.
+     */
+    void seal(WorldModel model) {
+        TileType[] types = TileType.values();
+        short[] values = new short[size];
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            short current = model.getLayer(types[layers[i]])[indices[i]];
+            if (current != before[i]) {
+                layers[kept] = layers[i];
+                indices[kept] = indices[i];
+                before[kept] = before[i];
+                values[kept] = current;
+                kept++;
+            }
+        }
+        size = kept;
+        layers = Arrays.copyOf(layers, kept);
+        indices = Arrays.copyOf(indices, kept);
+        before = Arrays.copyOf(before, kept);
+        after = Arrays.copyOf(values, kept);
+    }
+
+    void undo(WorldModel model) {
+        TileType[] types = TileType.values();
+        for (int i = size - 1; i >= 0; i--) {
+            model.getLayer(types[layers[i]])[indices[i]] = before[i];
+            model.markDirty(types[layers[i]], indices[i]);
+        }
+    }
+
+    void redo(WorldModel model) {
+        TileType[] types = TileType.values();
+        for (int i = 0; i < size; i++) {
+            model.getLayer(types[layers[i]])[indices[i]] = after[i];
+            model.markDirty(types[layers[i]], indices[i]);
+        }
+    }
+
+    /**
+     * Reports the changed area of every layer this edit touched.
+     */
+    public void forEachRegion(int width, RegionConsumer consumer) {
+        int layerCount = TileType.values().length;
+        int[] bounds = new int[layerCount * 4];
+        Arrays.fill(bounds, -1);
+
+        for (int i = 0; i < size; i++) {
+            int b = layers[i] * 4;
+            int x = indices[i] % width;
+            int y = indices[i] / width;
+            if (bounds[b] < 0) {
+                bounds[b] = x;
+                bounds[b + 1] = y;
+                bounds[b + 2] = x;
+                bounds[b + 3] = y;
+            } else {
+                bounds[b] = Math.min(bounds[b], x);
+                bounds[b + 1] = Math.min(bounds[b + 1], y);
+                bounds[b + 2] = Math.max(bounds[b + 2], x);
+                bounds[b + 3] = Math.max(bounds[b + 3], y);
+            }
+        }
+
+        TileType[] types = TileType.values();
+        for (int layer = 0; layer < layerCount; layer++) {
+            int b = layer * 4;
+            if (bounds[b] >= 0) {
+                consumer.accept(types[layer], bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3]);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of cells this edit changed.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Bytes held by the change buffers.
+     */
+    public long getMemoryFootprint() {
+        return (long) layers.length * Byte.BYTES + (long) indices.length * Integer.BYTES
+                + (long) before.length * Short.BYTES + (after == null ? 0 : (long) after.length * Short.BYTES);
+    }
+}
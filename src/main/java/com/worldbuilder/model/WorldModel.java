@@ -0,0 +1,235 @@
+package com.worldbuilder.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.worldbuilder.TileType;
+
+/**
+ * WorldModel - Tile state of every layer of the world.
+ * Each layer is a flat array with one short per tile, indexed by y * width + x.
+ * A cell is 0 when empty, otherwise the low byte holds the variant + 1 and the
+ * high byte holds the tile subtype (e.g. the rock type).
+ * Changed cells are tracked per layer in square chunks of {@link #CHUNK_SIZE}
+ * tiles, so saving can write only what changed.
+ */
+public final class WorldModel {
+    public static final short EMPTY = 0;
+    public static final int CHUNK_SIZE = 32;
+
+    private final int width;
+    private final int height;
+    private final short[][] layers = new short[TileType.values().length][];
+    private final int chunkColumns;
+    private final int chunkCount;
+    private final BitSet dirtyChunks = new BitSet();
+    private CellObserver observer;
+
+    /**
+     * Notified before a cell written through {@link #write} changes, e.g. to record undo history.
+     */
+    @FunctionalInterface
+    public interface CellObserver {
+        void beforeChange(TileType type, int index, short previous);
+    }
+
+    /**
+     * Creates an empty world.
+     * @param width The width of the world in tiles
+     * @param height The height of the world in tiles
+     */
+    public WorldModel(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("World size must be positive: " + width + "x" + height);
+        }
+        // Every layer is one array of width * height cells
+        Math.multiplyExact(width, height);
+        this.width = width;
+        this.height = height;
+        this.chunkColumns = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunkCount = chunkColumns * ((height + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+
+    /**
+     * Gets the cells of a layer, allocating them on first use.
+     */
+    public short[] getLayer(TileType type) {
+        short[] cells = layers[type.ordinal()];
+        if (cells == null) {
+            cells = new short[width * height];
+            layers[type.ordinal()] = cells;
+        }
+        return cells;
+    }
+
+    public boolean hasLayer(TileType type) {
+        return layers[type.ordinal()] != null;
+    }
+
+    public short get(TileType type, int x, int y) {
+        short[] cells = layers[type.ordinal()];
+        return cells == null ? EMPTY : cells[index(x, y)];
+    }
+
+    public void set(TileType type, int x, int y, short cell) {
+        getLayer(type)[index(x, y)] = cell;
+    }
+
+    /**
+     * Writes a cell by index, notifying the observer and marking its chunk dirty if
+     * the value changes. Editing operations go through here, bulk loads may write the
+     * layer arrays directly and call {@link #markAllDirty} when done.
+     */
+    public void write(TileType type, int index, short cell) {
+        short[] cells = getLayer(type);
+        short previous = cells[index];
+        if (previous != cell) {
+            if (observer != null) {
+                observer.beforeChange(type, index, previous);
+            }
+            cells[index] = cell;
+            markDirty(type, index);
+        }
+    }
+
+    /**
+     * Marks the chunk holding a cell as changed.
+     */
+    void markDirty(TileType type, int index) {
+        int chunk = (index / width / CHUNK_SIZE) * chunkColumns + (index % width) / CHUNK_SIZE;
+        dirtyChunks.set(type.ordinal() * chunkCount + chunk);
+    }
+
+    /**
+     * Marks every chunk of every allocated layer as changed.
+     */
+    public void markAllDirty() {
+        for (TileType type : TileType.values()) {
+            if (hasLayer(type)) {
+                dirtyChunks.set(type.ordinal() * chunkCount, (type.ordinal() + 1) * chunkCount);
+            }
+        }
+    }
+
+    /**
+     * Marks chunks as changed again, e.g. ones taken by {@link #takeDirtyChunks} that could not be saved.
+     * @param chunks Bits numbered as {@link #takeDirtyChunks} returns them
+     */
+    public void markDirty(BitSet chunks) {
+        dirtyChunks.or(chunks);
+    }
+
+    /**
+     * Takes the chunks changed since the last call.
+     * @return One bit per changed chunk, at type.ordinal() * getChunkCount() + chunk,
+     *         where chunks are numbered row by row
+     */
+    public BitSet takeDirtyChunks() {
+        BitSet dirty = (BitSet) dirtyChunks.clone();
+        dirtyChunks.clear();
+        return dirty;
+    }
+
+    /**
+     * Sets the observer notified by {@link #write}, or null to stop observing.
+     */
+    public void setObserver(CellObserver observer) {
+        this.observer = observer;
+    }
+
+    /**
+     * Copies every allocated layer into a new model, e.g. to read it on another thread.
+     */
+    public WorldModel copy() {
+        WorldModel copy = new WorldModel(width, height);
+        for (int i = 0; i < layers.length; i++) {
+            if (layers[i] != null) {
+                copy.layers[i] = layers[i].clone();
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Replaces the content of every layer with that of another world of the same size.
+     * Allocated layer arrays are kept and overwritten, as the tile layers hold on to them.
+     */
+    public void copyFrom(WorldModel source) {
+        if (source.width != width || source.height != height) {
+            throw new IllegalArgumentException("World is " + width + "x" + height + " but the source is "
+                    + source.width + "x" + source.height);
+        }
+        for (int i = 0; i < layers.length; i++) {
+            if (source.layers[i] != null) {
+                System.arraycopy(source.layers[i], 0, getLayer(TileType.values()[i]), 0, width * height);
+            } else if (layers[i] != null) {
+                Arrays.fill(layers[i], EMPTY);
+            }
+        }
+        markAllDirty();
+    }
+
+    public boolean has(TileType type, int x, int y) {
+        return get(type, x, y) != EMPTY;
+    }
+
+    /**
+     * Empties every allocated layer.
+     */
+    public void clear() {
+        for (short[] cells : layers) {
+            if (cells != null) {
+                Arrays.fill(cells, EMPTY);
+            }
+        }
+        markAllDirty();
+    }
+
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Packs a variant index and a subtype into a non-empty cell.
+     */
+    public static short pack(int variant, int subtype) {
+        return (short) (((subtype & 0xFF) << 8) | ((variant + 1) & 0xFF));
+    }
+
+    public static int variantOf(short cell) {
+        return (cell & 0xFF) - 1;
+    }
+
+    public static int subtypeOf(short cell) {
+        return (cell >> 8) & 0xFF;
+    }
+
+    /**
+     * Bytes held by the allocated layer arrays.
+     */
+    public long getMemoryFootprint() {
+        long bytes = 0;
+        for (short[] cells : layers) {
+            if (cells != null) {
+                bytes += (long) cells.length * Short.BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getChunkColumns() {
+        return chunkColumns;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+}
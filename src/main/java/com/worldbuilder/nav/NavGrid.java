@@ -0,0 +1,95 @@
+package com.worldbuilder.nav;
+
+import com.worldbuilder.io.CollisionMap;
+
+/**
+ * NavGrid - The walkable tiles of a collision map as a graph.
+ * Nodes are tiles of a level, numbered (level * height + y) * width + x. A node
+ * connects to the walkable tiles next to it on the same level, and stairs
+ * connect to the walkable tiles next to them one level up, in both directions.
+ */
+public final class NavGrid {
+    /** Most neighbours a node can have: four on its level, four one level up and four one level down. */
+    public static final int MAX_NEIGHBOURS = 12;
+
+    private final CollisionMap map;
+    private final int width;
+    private final int height;
+    private final int levels;
+
+    public NavGrid(CollisionMap map) {
+        this.map = map;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.levels = map.getLevels();
+    }
+
+    public int node(int x, int y, int level) {
+        return (level * height + y) * width + x;
+    }
+
+    public int xOf(int node) {
+        return node % width;
+    }
+
+    public int yOf(int node) {
+        return (node / width) % height;
+    }
+
+    public int levelOf(int node) {
+        return node / (width * height);
+    }
+
+    public boolean isWalkable(int node) {
+        return map.isWalkable(xOf(node), yOf(node), levelOf(node));
+    }
+
+    /**
+     * Writes the walkable neighbours of a node.
+     * @param out At least {@link #MAX_NEIGHBOURS} long
+     * @return The number of neighbours written
+     */
+    public int neighbours(int node, int[] out) {
+        int x = xOf(node);
+        int y = yOf(node);
+        int level = levelOf(node);
+        boolean stairs = map.has(x, y, level, CollisionMap.STAIRS_UP);
+        int count = 0;
+
+        for (int direction = 0; direction < 4; direction++) {
+            int nx = x + (direction == 0 ? 1 : direction == 1 ? -1 : 0);
+            int ny = y + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+            if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                continue;
+            }
+            if (map.isWalkable(nx, ny, level)) {
+                out[count++] = node(nx, ny, level);
+            }
+            // Up the stairs onto the level above
+            if (stairs && level + 1 < levels && map.isWalkable(nx, ny, level + 1)) {
+                out[count++] = node(nx, ny, level + 1);
+            }
+            // Down the stairs next to this tile
+            if (level > 0 && map.has(nx, ny, level - 1, CollisionMap.STAIRS_UP | CollisionMap.WALKABLE)) {
+                out[count++] = node(nx, ny, level - 1);
+            }
+        }
+        return count;
+    }
+
+    public int getNodeCount() {
+        return width * height * levels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+}
@@ -0,0 +1,148 @@
+package com.worldbuilder.nav;
+
+import java.util.Arrays;
+
+/**
+ * PathFinder - A* search over a {@link NavGrid}.
+ * Every step costs 1, including a step up or down the stairs, which also moves a
+ * tile, so the heuristic is the larger of the Manhattan and the level distance.
+ * The search state lives in arrays sized once per grid and reset in constant
+ * time by a generation counter, so repeated searches do not allocate.
+ * Not thread safe, use one finder per thread.
+ */
+public final class PathFinder {
+    private final NavGrid grid;
+    private final int[] cost;
+    private final int[] parent;
+    private final int[] generation;
+    private final int[] neighbours = new int[NavGrid.MAX_NEIGHBOURS];
+    private long[] heap = new long[1024];
+    private int heapSize;
+    private int currentGeneration;
+    private int expanded;
+
+    public PathFinder(NavGrid grid) {
+        this.grid = grid;
+        this.cost = new int[grid.getNodeCount()];
+        this.parent = new int[grid.getNodeCount()];
+        this.generation = new int[grid.getNodeCount()];
+    }
+
+    /**
+     * Finds a shortest path between two tiles.
+     * @return The nodes of the path from start to goal, or null if the goal cannot be reached
+     */
+    public int[] findPath(int startX, int startY, int startLevel, int goalX, int goalY, int goalLevel) {
+        int start = grid.node(startX, startY, startLevel);
+        int goal = grid.node(goalX, goalY, goalLevel);
+        if (!grid.isWalkable(start) || !grid.isWalkable(goal)) {
+            return null;
+        }
+
+        nextGeneration();
+        heapSize = 0;
+        expanded = 0;
+        visit(start, 0, -1);
+        push(heuristic(start, goal), start);
+
+        while (heapSize > 0) {
+            long entry = pop();
+            int node = (int) entry;
+            int nodeCost = cost[node];
+            // Skip entries left behind when a cheaper way to the node was found
+            if ((int) (entry >>> 32) != nodeCost + heuristic(node, goal)) {
+                continue;
+            }
+            if (node == goal) {
+                return tracePath(goal);
+            }
+            expanded++;
+
+            int count = grid.neighbours(node, neighbours);
+            for (int i = 0; i < count; i++) {
+                int next = neighbours[i];
+                int nextCost = nodeCost + 1;
+                if (generation[next] != currentGeneration || nextCost < cost[next]) {
+                    visit(next, nextCost, node);
+                    push(nextCost + heuristic(next, goal), next);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of nodes expanded by the last search.
+     */
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    private int heuristic(int node, int goal) {
+        int distance = Math.abs(grid.xOf(node) - grid.xOf(goal)) + Math.abs(grid.yOf(node) - grid.yOf(goal));
+        return Math.max(distance, Math.abs(grid.levelOf(node) - grid.levelOf(goal)));
+    }
+
+    private void nextGeneration() {
+        if (++currentGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(generation, 0);
+            currentGeneration = 1;
+        }
+    }
+
+    private void visit(int node, int nodeCost, int from) {
+        generation[node] = currentGeneration;
+        cost[node] = nodeCost;
+        parent[node] = from;
+    }
+
+    private int[] tracePath(int goal) {
+        int length = cost[goal] + 1;
+        int[] path = new int[length];
+        for (int node = goal, i = length - 1; node != -1; node = parent[node], i--) {
+            path[i] = node;
+        }
+        return path;
+    }
+
+    // Binary min-heap of entries packed as (priority << 32) | node
+
+    private void push(int priority, int node) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        long entry = ((long) priority << 32) | node;
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= entry) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
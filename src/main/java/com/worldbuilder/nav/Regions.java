@@ -0,0 +1,109 @@
+package com.worldbuilder.nav;
+
+import java.util.Arrays;
+
+/**
+ * Regions - The connected areas of a {@link NavGrid}.
+ * Every walkable node is labelled with its region by a breadth-first flood,
+ * after which any two tiles can be checked for a path between them in
+ * constant time. The largest region is taken as the main area of the world,
+ * walkable tiles outside of it cannot be reached from there.
+ */
+public final class Regions {
+    public static final int NONE = -1;
+
+    private final NavGrid grid;
+    private final int[] labels;
+    private int[] sizes = new int[16];
+    private int regionCount;
+    private int largest = NONE;
+
+    private Regions(NavGrid grid) {
+        this.grid = grid;
+        this.labels = new int[grid.getNodeCount()];
+    }
+
+    /**
+     * Labels the connected regions of the grid.
+     */
+    public static Regions analyze(NavGrid grid) {
+        Regions regions = new Regions(grid);
+        regions.label();
+        return regions;
+    }
+
+    private void label() {
+        Arrays.fill(labels, NONE);
+        int[] queue = new int[labels.length];
+        int[] neighbours = new int[NavGrid.MAX_NEIGHBOURS];
+
+        for (int start = 0; start < labels.length; start++) {
+            if (labels[start] != NONE || !grid.isWalkable(start)) {
+                continue;
+            }
+
+            int region = regionCount++;
+            if (region == sizes.length) {
+                sizes = Arrays.copyOf(sizes, region * 2);
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            labels[start] = region;
+
+            while (head < tail) {
+                int count = grid.neighbours(queue[head++], neighbours);
+                for (int i = 0; i < count; i++) {
+                    int next = neighbours[i];
+                    if (labels[next] == NONE) {
+                        labels[next] = region;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+
+            sizes[region] = tail;
+            if (largest == NONE || tail > sizes[largest]) {
+                largest = region;
+            }
+        }
+    }
+
+    /**
+     * Gets the region of a tile, or {@link #NONE} if it is not walkable.
+     */
+    public int regionOf(int x, int y, int level) {
+        return labels[grid.node(x, y, level)];
+    }
+
+    /**
+     * Checks if there is a path between two tiles.
+     */
+    public boolean isConnected(int x0, int y0, int level0, int x1, int y1, int level1) {
+        int region = regionOf(x0, y0, level0);
+        return region != NONE && region == regionOf(x1, y1, level1);
+    }
+
+    /**
+     * Checks if a walkable tile is cut off from the main area of the world.
+     */
+    public boolean isUnreachable(int x, int y, int level) {
+        int region = regionOf(x, y, level);
+        return region != NONE && region != largest;
+    }
+
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    public int getRegionSize(int region) {
+        return sizes[region];
+    }
+
+    /**
+     * Gets the largest region, or {@link #NONE} if nothing is walkable.
+     */
+    public int getLargestRegion() {
+        return largest;
+    }
+}
@@ -0,0 +1,158 @@
+package com.worldbuilder.render;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.worldbuilder.SpriteLoader;
+import com.worldbuilder.SpriteSurface;
+import com.worldbuilder.Canvas.LayerStack;
+import com.worldbuilder.io.WorldFile;
+import com.worldbuilder.model.WorldModel;
+
+import javafx.embed.swing.SwingFXUtils;
+
+/**
+ * HeadlessRenderer - Rasterizes a saved world to PNG without opening a window.
+ * The world is rendered in horizontal strips of tile rows on all cores, using the
+ * same layers and sprite atlas as the editor, and the strips are streamed into a
+ * single PNG so memory only depends on the strip size, not on the world size.
+ *
+ * Usage: HeadlessRenderer &lt;world file&gt; &lt;output png&gt; [--strip-rows N] [--threads N]
+ */
+public final class HeadlessRenderer {
+    private static final int TILE_SIZE = 64;
+    private static final int DEFAULT_STRIP_ROWS = 1;
+
+    private final WorldModel model;
+    private final LayerStack layers;
+    private final BufferedImage atlas;
+    private final int stripRows;
+    private final int threads;
+
+    /**
+     * Creates a renderer for the given world.
+     * @param model The world to render
+     * @param stripRows Number of tile rows rendered per strip
+     * @param threads Number of strips rendered at the same time
+     */
+    public HeadlessRenderer(WorldModel model, int stripRows, int threads) {
+        if (stripRows < 1 || threads < 1) {
+            throw new IllegalArgumentException("Strip rows and threads must be positive");
+        }
+        this.model = model;
+        this.layers = new LayerStack(model);
+        this.atlas = SwingFXUtils.fromFXImage(SpriteLoader.getAtlas(), null);
+        this.stripRows = stripRows;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        // No display or GPU is needed, JavaFX is only used to decode the sprite sheets
+        System.setProperty("java.awt.headless", "true");
+        System.setProperty("prism.order", "sw");
+
+        if (args.length < 2) {
+            System.err.println("Usage: HeadlessRenderer <world file> <output png> [--strip-rows N] [--threads N]");
+            System.exit(1);
+        }
+
+        int stripRows = DEFAULT_STRIP_ROWS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--strip-rows" -> stripRows = Integer.parseInt(args[++i]);
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+
+            long start = System.nanoTime();
+            WorldModel model = WorldFile.read(Path.of(args[0]));
+            new HeadlessRenderer(model, stripRows, threads).render(Path.of(args[1]));
+
+            System.out.printf("Rendered %dx%d tiles to %s in %d ms%n",
+                    model.getWidth(), model.getHeight(), args[1], (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to render world: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Renders the world and writes it as a PNG.
+     * At most two strips per thread are held in memory at any time.
+     */
+    public void render(Path output) throws IOException {
+        int width = model.getWidth() * TILE_SIZE;
+        int height = model.getHeight() * TILE_SIZE;
+        int stripCount = (model.getHeight() + stripRows - 1) / stripRows;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "HeadlessRenderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (PngStripWriter writer = new PngStripWriter(output, width, height)) {
+            Deque<Future<PngStripWriter.EncodedStrip>> pending = new ArrayDeque<>();
+            int next = 0;
+            while (next < stripCount || !pending.isEmpty()) {
+                while (next < stripCount && pending.size() < threads * 2) {
+                    int strip = next++;
+                    pending.add(executor.submit(() -> renderStrip(strip, strip == stripCount - 1)));
+                }
+                writer.write(pending.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Rendering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render strip: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PngStripWriter.EncodedStrip renderStrip(int strip, boolean last) {
+        int tileY0 = strip * stripRows;
+        int tileY1 = Math.min(model.getHeight(), tileY0 + stripRows) - 1;
+        int width = model.getWidth() * TILE_SIZE;
+        int rows = (tileY1 - tileY0 + 1) * TILE_SIZE;
+
+        BufferedImage image = new BufferedImage(width, rows, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            // World pixel coordinates, sprites reaching outside the strip are clipped by the image
+            g.translate(0, -tileY0 * TILE_SIZE);
+            layers.render(surface(g), 0, tileY0, model.getWidth() - 1, tileY1);
+        } finally {
+            g.dispose();
+        }
+
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        return PngStripWriter.encode(pixels, width, rows, last);
+    }
+
+    private SpriteSurface surface(Graphics2D g) {
+        return (region, x, y, w, h) -> {
+            int dx = (int) Math.round(x);
+            int dy = (int) Math.round(y);
+            g.drawImage(atlas,
+                    dx, dy, dx + (int) Math.round(w), dy + (int) Math.round(h),
+                    region.x(), region.y(), region.x() + region.width(), region.y() + region.height(),
+                    null);
+        };
+    }
+}
@@ -0,0 +1,169 @@
+package com.worldbuilder.render;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streams a PNG to disk one horizontal strip at a time.
+ * Strips are encoded independently (filtered and deflated with a sync flush), so
+ * they can be compressed in parallel and appended in order as separate IDAT
+ * chunks, without ever holding the whole image in memory.
+ */
+final class PngStripWriter implements Closeable {
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final int BYTES_PER_PIXEL = 4; // RGBA
+    private static final int FILTER_SUB = 1;
+    private static final int ADLER_BASE = 65521;
+
+    private final DataOutputStream out;
+    private final int height;
+    private int rowsWritten;
+    private long adler = 1;
+
+    /**
+     * A strip compressed as a piece of the image's zlib stream.
+     */
+    record EncodedStrip(byte[] data, int length, int rows, long adler, long rawLength) {}
+
+    PngStripWriter(Path path, int width, int height) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        this.height = height;
+
+        out.write(SIGNATURE);
+
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8; // Bit depth
+        header[9] = 6; // Colour type RGBA
+        writeChunk("IHDR", header, header.length);
+
+        // zlib header (deflate, default compression), the strips follow as its body
+        writeChunk("IDAT", new byte[] { 0x78, (byte) 0x9C }, 2);
+    }
+
+    /**
+     * Filters and deflates a strip of ARGB pixels. Safe to call from any thread.
+     *
+     * @param pixels The strip, row by row, {@code width} pixels per row
+     * @param last Whether this is the bottom strip, which terminates the stream
+     */
+    static EncodedStrip encode(int[] pixels, int width, int rows, boolean last) {
+        int stride = 1 + width * BYTES_PER_PIXEL;
+        byte[] raw = new byte[stride * rows];
+
+        for (int row = 0; row < rows; row++) {
+            int offset = row * stride;
+            raw[offset] = FILTER_SUB;
+            int left = 0;
+            for (int x = 0; x < width; x++) {
+                int argb = pixels[row * width + x];
+                // Sub filter: store the difference to the pixel on the left
+                int i = offset + 1 + x * BYTES_PER_PIXEL;
+                raw[i] = (byte) ((argb >> 16) - (left >> 16));
+                raw[i + 1] = (byte) ((argb >> 8) - (left >> 8));
+                raw[i + 2] = (byte) (argb - left);
+                raw[i + 3] = (byte) ((argb >>> 24) - (left >>> 24));
+                left = argb;
+            }
+        }
+
+        Adler32 checksum = new Adler32();
+        checksum.update(raw);
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] data = new byte[raw.length / 2 + 64];
+            int length = 0;
+            while (true) {
+                if (length == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                int space = data.length - length;
+                int count = deflater.deflate(data, length, space, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                length += count;
+                // A flush is complete once it no longer fills the output buffer
+                if (last ? deflater.finished() : count < space) {
+                    break;
+                }
+            }
+            return new EncodedStrip(data, length, rows, checksum.getValue(), raw.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Appends the next strip. Strips must be written top to bottom.
+     */
+    void write(EncodedStrip strip) throws IOException {
+        if (rowsWritten + strip.rows() > height) {
+            throw new IllegalStateException("Strip exceeds image height");
+        }
+        writeChunk("IDAT", strip.data(), strip.length());
+        adler = combineAdler(adler, strip.adler(), strip.rawLength());
+        rowsWritten += strip.rows();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsWritten == height) {
+                byte[] trailer = new byte[4];
+                putInt(trailer, 0, (int) adler);
+                writeChunk("IDAT", trailer, 4);
+                writeChunk("IEND", new byte[0], 0);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Adler-32 of two concatenated blocks from the checksums of each block (as zlib's adler32_combine).
+     */
+    private static long combineAdler(long adler1, long adler2, long length2) {
+        long remainder = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = (remainder * sum1) % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += ((adler1 >> 16) & 0xFFFF) + ((adler2 >> 16) & 0xFFFF) + ADLER_BASE - remainder;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum2 >= (ADLER_BASE << 1)) sum2 -= (ADLER_BASE << 1);
+        if (sum2 >= ADLER_BASE) sum2 -= ADLER_BASE;
+        return (sum2 << 16) | sum1;
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
@@ -3,15 +3,24 @@ package com.worldbuilder.ui;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.worldbuilder.App;
+import com.worldbuilder.Canvas.BrushTool;
 import com.worldbuilder.Canvas.WorldCanvas;
 import com.worldbuilder.TileType;
 import com.worldbuilder.debug.DebugInfo;
 
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
@@ -28,6 +37,15 @@ public class SidePanel extends HBox {
     private final Button loadButton = new Button("Load");
     private final Button exportButton = new Button("Export");
     private final Button importButton = new Button("Import");
+    private final ComboBox<BrushTool> toolBox = new ComboBox<>();
+    private final ProgressBar exportProgress = new ProgressBar();
+    private Task<Void> exportTask;
+    private final Spinner<Integer> brushSize = new Spinner<>(BrushTool.MIN_SIZE, BrushTool.MAX_SIZE, 1);
+    private final ComboBox<Integer> levelBox = new ComboBox<>();
+    private final CheckBox levelVisible = new CheckBox("Show");
+    private final Button addLevelButton = new Button("+");
+    private final TextField seedField = new TextField();
+    private final Button generateButton = new Button("Generate");
 
     public SidePanel() {
         super(0); // No spacing between panels
@@ -97,10 +115,73 @@ public class SidePanel extends HBox {
                 .toList();
         mainPanel.getChildren().addAll(buttons);
 
+        // Brush tool and the diameter of the freehand brush
+        toolBox.getItems().addAll(BrushTool.values());
+        toolBox.setValue(BrushTool.BRUSH);
+        toolBox.setPrefWidth(100);
+        toolBox.setOnAction(event -> DebugInfo.setLastAction("Tool: " + toolBox.getValue()));
+        brushSize.setEditable(true);
+        brushSize.setPrefWidth(64);
+        brushSize.disableProperty().bind(toolBox.valueProperty().isNotEqualTo(BrushTool.BRUSH));
+        HBox brushBox = new HBox(8, toolBox, brushSize);
+        brushBox.setAlignment(Pos.CENTER);
+        mainPanel.getChildren().add(brushBox);
+
+        // Level being edited, whether it is shown, and a button to add an elevation on top
+        levelBox.getItems().add(0);
+        levelBox.setValue(0);
+        levelBox.setPrefWidth(64);
+        levelBox.setOnAction(event -> {
+            if (levelBox.getValue() == null) {
+                return;
+            }
+            WorldCanvas worldCanvas = App.getWorldCanvas();
+            worldCanvas.setActiveLevel(levelBox.getValue());
+            levelVisible.setSelected(worldCanvas.isLevelVisible(levelBox.getValue()));
+        });
+        levelVisible.setSelected(true);
+        levelVisible.setOnAction(event ->
+                App.getWorldCanvas().setLevelVisible(levelBox.getValue(), levelVisible.isSelected()));
+        // The new level is added to the box through the level count of the world canvas
+        addLevelButton.setOnAction(event -> levelBox.setValue(App.getWorldCanvas().addElevation()));
+        HBox levelRow = new HBox(8, levelBox, levelVisible, addLevelButton);
+        levelRow.setAlignment(Pos.CENTER);
+        mainPanel.getChildren().add(levelRow);
+
+        // Generates the ground from the seed, or from a new one shown in the field if it is empty
+        seedField.setPromptText("Seed");
+        seedField.setPrefWidth(80);
+        generateButton.setOnAction(event -> {
+            long seed;
+            if (seedField.getText().isBlank()) {
+                seed = ThreadLocalRandom.current().nextInt(1_000_000);
+                seedField.setText(Long.toString(seed));
+            } else {
+                try {
+                    seed = Long.parseLong(seedField.getText().trim());
+                } catch (NumberFormatException e) {
+                    DebugInfo.setError("SEED MUST BE A NUMBER");
+                    return;
+                }
+            }
+            App.getWorldCanvas().generate(seed);
+        });
+        HBox generateRow = new HBox(8, seedField, generateButton);
+        generateRow.setAlignment(Pos.CENTER);
+        mainPanel.getChildren().add(generateRow);
+
         exportButton.setOnAction(event -> {
+            // While exporting the button cancels the export
+            if (exportTask != null) {
+                exportTask.cancel();
+                return;
+            }
             System.out.println("Exporting");
             WorldCanvas worldCanvas = App.getWorldCanvas();
-            worldCanvas.export();
+            Task<Void> task = worldCanvas.export();
+            if (task != null) {
+                showExport(task);
+            }
         });
 
         importButton.setOnAction(event -> {
@@ -109,11 +190,19 @@ public class SidePanel extends HBox {
                 worldCanvas.importfunc();
             } catch (IOException e) {
                 DebugInfo.setError("Failed to import world: " + e.getMessage());
-                e.printStackTrace();
             }
         });
 
 
+        saveButton.setOnAction(event -> App.getWorldCanvas().save());
+        loadButton.setOnAction(event -> App.getWorldCanvas().load());
+
+        saveButton.getStyleClass().add("importExportButton");
+        loadButton.getStyleClass().add("importExportButton");
+        HBox projectBox = new HBox(12, saveButton, loadButton);
+        projectBox.setAlignment(Pos.CENTER);
+        mainPanel.getChildren().add(projectBox);
+
         exportButton.getStyleClass().add("importExportButton");
         importButton.getStyleClass().add("importExportButton");
         HBox buttonBox = new HBox(12);
@@ -122,9 +211,59 @@ public class SidePanel extends HBox {
         buttonBox.setAlignment(Pos.CENTER);
         buttonBox.getChildren().addAll(exportButton, importButton);
         mainPanel.getChildren().addAll(buttonBox);
+
+        exportProgress.setPrefWidth(160);
+        exportProgress.setVisible(false);
+        exportProgress.setManaged(false);
+        mainPanel.getChildren().add(exportProgress);
         getChildren().addAll(mainPanel, typesPanel);
     }
 
+    /**
+     * Shows the progress of an export until it ends.
+     */
+    private void showExport(Task<Void> task) {
+        exportTask = task;
+        exportButton.setText("Cancel");
+        exportProgress.progressProperty().bind(task.progressProperty());
+        exportProgress.setVisible(true);
+        exportProgress.setManaged(true);
+
+        task.stateProperty().addListener((observable, oldState, newState) -> {
+            if (newState == Worker.State.SUCCEEDED || newState == Worker.State.FAILED
+                    || newState == Worker.State.CANCELLED) {
+                exportTask = null;
+                exportButton.setText("Export");
+                exportProgress.progressProperty().unbind();
+                exportProgress.setVisible(false);
+                exportProgress.setManaged(false);
+            }
+        });
+    }
+
+    /**
+     * Keeps the levels offered in the level box in line with the levels of the world,
+     * which loading or importing a world can add to.
+     */
+    public void setWorldCanvas(WorldCanvas worldCanvas) {
+        updateLevels(worldCanvas.getLevelCount());
+        worldCanvas.levelCountProperty().addListener(
+                (observable, oldCount, newCount) -> updateLevels(newCount.intValue()));
+    }
+
+    private void updateLevels(int count) {
+        List<Integer> levels = levelBox.getItems();
+        while (levels.size() < count) {
+            levels.add(levels.size());
+        }
+        while (levels.size() > count) {
+            levels.remove(levels.size() - 1);
+        }
+        if (levelBox.getValue() == null || levelBox.getValue() >= count) {
+            levelBox.setValue(0);
+        }
+    }
+
     public void setOverlayPane(Pane overlayPane, int windowWidth) {
         this.overlayPane = overlayPane;
         this.windowWidth = windowWidth;
@@ -156,6 +295,14 @@ public class SidePanel extends HBox {
         return selectedLayer;
     }
 
+    public BrushTool getSelectedTool() {
+        return toolBox.getValue();
+    }
+
+    public int getBrushSize() {
+        return brushSize.getValue();
+    }
+
     public int getSelectedRockType() {
         return typesPanel.getSelectedIndex();
     }
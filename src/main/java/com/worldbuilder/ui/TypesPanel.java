@@ -12,7 +12,6 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.WritableImage;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
@@ -71,11 +70,8 @@ public class TypesPanel extends VBox {
             button.setMinHeight(64);
             button.setMaxHeight(64);
 
-            // Get rock image from SpriteLoader
-            Image rockImage = SpriteLoader.getRocksImage(typeIndex + 1);
-
-            // Extract single frame from sprite sheet based on index
-            WritableImage frame = SpriteLoader.extractFrame(rockImage, 0, 8); // 8 frames in the spritesheet
+            // First frame of the rock animation, cached by SpriteLoader
+            Image frame = SpriteLoader.getFrameImage(SpriteLoader.Sheet.rocks(typeIndex), 0);
 
             ImageView imageView = new ImageView(frame);
             imageView.setFitWidth(85);